@@ -0,0 +1,387 @@
+/*
+ * Copyright 2012 Evgeny Dolganov (evgenij.dolganov@gmail.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package easydroid.gf.apt;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.TreeMap;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.Filer;
+import javax.annotation.processing.Messager;
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.annotation.processing.SupportedOptions;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
+import javax.tools.Diagnostic.Kind;
+import javax.tools.JavaFileObject;
+
+/**
+ * Annotation processor for generating <tt>easydroid.gf.extra.registry.HandlerRegistry</tt>
+ * with all handlers, interceptors and filters of compiled sources.
+ * <br>Types are selected like in <tt>DeployService.scanAndPut</tt>:
+ * all filters and <tt>&#064;Mapping</tt> handlers and interceptors.
+ * Filters and interceptors are listed by <tt>&#064;Order</tt>.
+ * <p>Example:
+ * <pre>
+ * javac -processorpath easy-android-apt.jar -Agf.registry=some.package.AppRegistry ...
+ * 
+ * engine.loadRegistry("some.package.AppRegistry");
+ * </pre>
+ * Without <tt>gf.registry</tt> option the class name is <tt>easydroid.gf.generated.GfHandlerRegistry</tt>.
+ * 
+ * <p><b>Note:</b> Registry contains only types compiled in the same <tt>javac</tt> call
+ * and not generated by other processors.
+ * Types from libraries must be put into <tt>Engine</tt> separately.
+ */
+@SupportedAnnotationTypes("*")
+@SupportedOptions(RegistryProcessor.CLASS_NAME_OPTION)
+public class RegistryProcessor extends AbstractProcessor {
+	
+	public static final String CLASS_NAME_OPTION = "gf.registry";
+	public static final String DEFAULT_CLASS_NAME = "easydroid.gf.generated.GfHandlerRegistry";
+	
+	static final String REGISTRY_TYPE = "easydroid.gf.extra.registry.IndexedHandlerRegistry";
+	static final String HANDLER_TYPE = "easydroid.gf.Handler";
+	static final String INTERCEPTOR_TYPE = "easydroid.gf.Interceptor";
+	static final String FILTER_TYPE = "easydroid.gf.Filter";
+	static final String MAPPING_TYPE = "easydroid.gf.annotation.Mapping";
+	static final String ORDER_TYPE = "easydroid.gf.annotation.Order";
+	
+	static final int DEFAULT_ORDER = Integer.MAX_VALUE - 1;
+	
+	private Types types;
+	private Elements elements;
+	private Messager messager;
+	private Filer filer;
+	
+	private TypeMirror handlerType;
+	private TypeMirror interceptorType;
+	private TypeMirror filterType;
+	
+	private ArrayList<TypeElement> handlers = new ArrayList<TypeElement>();
+	private ArrayList<TypeElement> interceptors = new ArrayList<TypeElement>();
+	private ArrayList<TypeElement> filters = new ArrayList<TypeElement>();
+	private boolean generated;
+	
+	@Override
+	public synchronized void init(ProcessingEnvironment env) {
+		super.init(env);
+		types = env.getTypeUtils();
+		elements = env.getElementUtils();
+		messager = env.getMessager();
+		filer = env.getFiler();
+		
+		handlerType = getErasure(HANDLER_TYPE);
+		interceptorType = getErasure(INTERCEPTOR_TYPE);
+		filterType = getErasure(FILTER_TYPE);
+	}
+	
+	@Override
+	public SourceVersion getSupportedSourceVersion() {
+		return SourceVersion.latestSupported();
+	}
+
+	@Override
+	public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment round) {
+		
+		if(handlerType == null || generated){
+			return false;
+		}
+		
+		//generate in the first round with sources:
+		//a source created in the last round is not compiled (javac warns about it)
+		Set<? extends Element> roots = round.getRootElements();
+		if(roots.isEmpty()){
+			return false;
+		}
+		for(Element root : roots){
+			collect(root);
+		}
+		
+		generated = true;
+		if(handlers.size() + interceptors.size() + filters.size() > 0){
+			generate();
+		}
+		
+		//don't claim any annotations
+		return false;
+	}
+	
+	
+	private void collect(Element elem){
+		
+		if(elem.getKind() != ElementKind.CLASS){
+			return;
+		}
+		TypeElement type = (TypeElement) elem;
+		
+		for(Element inner : type.getEnclosedElements()){
+			collect(inner);
+		}
+		
+		if(type.getModifiers().contains(Modifier.ABSTRACT)){
+			return;
+		}
+		
+		TypeMirror erasure = types.erasure(type.asType());
+		
+		ArrayList<TypeElement> list = null;
+		if(filterType != null && types.isSubtype(erasure, filterType)){
+			list = filters;
+		}
+		else if(getAnnotation(type, MAPPING_TYPE) != null){
+			if(types.isSubtype(erasure, handlerType)){
+				list = handlers;
+			}
+			else if(interceptorType != null && types.isSubtype(erasure, interceptorType)){
+				list = interceptors;
+			}
+		}
+		if(list == null){
+			return;
+		}
+		
+		if( ! isAccessible(type)){
+			messager.printMessage(Kind.WARNING, 
+					"Type is not public and will not be put into "+getClassName()+": "+type.getQualifiedName(),
+					type);
+			return;
+		}
+		
+		list.add(type);
+	}
+	
+	
+	private void generate(){
+		
+		String className = getClassName();
+		int lastDot = className.lastIndexOf('.');
+		String packageName = lastDot > 0? className.substring(0, lastDot) : null;
+		String simpleName = className.substring(lastDot + 1);
+		
+		sort(handlers, false);
+		sort(interceptors, true);
+		sort(filters, true);
+		
+		ArrayList<Element> origins = new ArrayList<Element>();
+		origins.addAll(handlers);
+		origins.addAll(interceptors);
+		origins.addAll(filters);
+		
+		StringBuilder sb = new StringBuilder();
+		if(packageName != null){
+			sb.append("package ").append(packageName).append(";\n\n");
+		}
+		sb.append("import java.util.Arrays;\n");
+		sb.append("import java.util.Collections;\n");
+		sb.append("import java.util.HashMap;\n");
+		sb.append("import java.util.List;\n\n");
+		sb.append("/**\n * Generated by ").append(getClass().getName()).append(". Don't edit.\n */\n");
+		sb.append("public final class ").append(simpleName)
+			.append(" implements ").append(REGISTRY_TYPE).append(" {\n\n");
+		appendList(sb, "Handlers", handlers);
+		appendList(sb, "Interceptors", interceptors);
+		appendList(sb, "Filters", filters);
+		appendIndex(sb);
+		sb.append("}\n");
+		
+		Writer writer = null;
+		try {
+			JavaFileObject file = filer.createSourceFile(className, origins.toArray(new Element[origins.size()]));
+			writer = file.openWriter();
+			writer.write(sb.toString());
+		}catch (IOException e) {
+			messager.printMessage(Kind.ERROR, "Can't generate "+className+": "+e);
+		}finally {
+			if(writer != null){
+				try {
+					writer.close();
+				}catch (IOException e) {
+					messager.printMessage(Kind.ERROR, "Can't generate "+className+": "+e);
+				}
+			}
+		}
+	}
+	
+	private void appendList(StringBuilder sb, String name, List<TypeElement> list){
+		sb.append("\tpublic List<Class<?>> get").append(name).append("() {\n");
+		if(list.isEmpty()){
+			sb.append("\t\treturn Collections.emptyList();\n");
+		} else {
+			sb.append("\t\treturn Arrays.<Class<?>>asList(");
+			for (int i = 0; i < list.size(); i++) {
+				if(i > 0) sb.append(',');
+				sb.append("\n\t\t\t\t").append(types.erasure(list.get(i).asType())).append(".class");
+			}
+			sb.append(");\n");
+		}
+		sb.append("\t}\n\n");
+	}
+	
+	
+	/**
+	 * Names of handlers by names of their mapping targets: handlers are loaded only by lookup
+	 */
+	private void appendIndex(StringBuilder sb){
+		
+		TreeMap<String, List<String>> index = new TreeMap<String, List<String>>();
+		for(TypeElement handler : handlers){
+			String handlerName = elements.getBinaryName(handler).toString();
+			for(TypeElement target : getMappingTargets(handler)){
+				String targetName = elements.getBinaryName(target).toString();
+				List<String> names = index.get(targetName);
+				if(names == null){
+					names = new ArrayList<String>();
+					index.put(targetName, names);
+				}
+				names.add(handlerName);
+			}
+		}
+		
+		sb.append("\tprivate static final HashMap<String, List<String>> HANDLER_NAMES = new HashMap<String, List<String>>();\n");
+		sb.append("\tstatic {\n");
+		for(Entry<String, List<String>> entry : index.entrySet()){
+			sb.append("\t\tHANDLER_NAMES.put(\"").append(entry.getKey()).append("\", Arrays.asList(");
+			List<String> names = entry.getValue();
+			for (int i = 0; i < names.size(); i++) {
+				if(i > 0) sb.append(", ");
+				sb.append('"').append(names.get(i)).append('"');
+			}
+			sb.append("));\n");
+		}
+		sb.append("\t}\n\n");
+		
+		sb.append("\tpublic List<String> getHandlerNames(String actionTypeName) {\n");
+		sb.append("\t\tList<String> names = HANDLER_NAMES.get(actionTypeName);\n");
+		sb.append("\t\treturn names == null? Collections.<String>emptyList() : names;\n");
+		sb.append("\t}\n\n");
+	}
+	
+	private static List<TypeElement> getMappingTargets(TypeElement type){
+		ArrayList<TypeElement> out = new ArrayList<TypeElement>();
+		AnnotationMirror mapping = getAnnotation(type, MAPPING_TYPE);
+		if(mapping == null){
+			return out;
+		}
+		for(Entry<? extends ExecutableElement, ? extends AnnotationValue> entry : mapping.getElementValues().entrySet()){
+			if( ! entry.getKey().getSimpleName().contentEquals("value")){
+				continue;
+			}
+			Object value = entry.getValue().getValue();
+			//single value can be without braces
+			List<?> values = value instanceof List? (List<?>)value : Collections.singletonList(entry.getValue());
+			for(Object item : values){
+				Object target = ((AnnotationValue)item).getValue();
+				if(target instanceof DeclaredType){
+					out.add((TypeElement)((DeclaredType)target).asElement());
+				}
+			}
+		}
+		return out;
+	}
+	
+	private void sort(List<TypeElement> list, final boolean byOrder){
+		Collections.sort(list, new Comparator<TypeElement>() {
+			
+			@Override
+			public int compare(TypeElement a, TypeElement b) {
+				if(byOrder){
+					int aOrder = getOrder(a);
+					int bOrder = getOrder(b);
+					if(aOrder != bOrder){
+						return aOrder < bOrder ? -1 : 1;
+					}
+				}
+				return a.getQualifiedName().toString().compareTo(b.getQualifiedName().toString());
+			}
+		});
+	}
+	
+	private int getOrder(TypeElement type){
+		AnnotationMirror order = getAnnotation(type, ORDER_TYPE);
+		if(order == null){
+			return DEFAULT_ORDER;
+		}
+		for(Entry<? extends ExecutableElement, ? extends AnnotationValue> entry : order.getElementValues().entrySet()){
+			if(entry.getKey().getSimpleName().contentEquals("value")){
+				Object value = entry.getValue().getValue();
+				if(value instanceof Integer){
+					return (Integer)value;
+				}
+			}
+		}
+		return DEFAULT_ORDER;
+	}
+	
+	private static AnnotationMirror getAnnotation(TypeElement type, String annotationType){
+		for(AnnotationMirror mirror : type.getAnnotationMirrors()){
+			TypeElement elem = (TypeElement) mirror.getAnnotationType().asElement();
+			if(elem.getQualifiedName().contentEquals(annotationType)){
+				return mirror;
+			}
+		}
+		return null;
+	}
+	
+	private static boolean isAccessible(TypeElement type){
+		Element cur = type;
+		while(cur instanceof TypeElement){
+			TypeElement curType = (TypeElement) cur;
+			if( ! curType.getModifiers().contains(Modifier.PUBLIC)){
+				return false;
+			}
+			if(curType.getNestingKind() == NestingKind.MEMBER
+					&& ! curType.getModifiers().contains(Modifier.STATIC)){
+				return false;
+			}
+			cur = curType.getEnclosingElement();
+		}
+		return true;
+	}
+	
+	private TypeMirror getErasure(String typeName){
+		TypeElement elem = elements.getTypeElement(typeName);
+		return elem == null? null : types.erasure(elem.asType());
+	}
+	
+	private String getClassName(){
+		Map<String, String> options = processingEnv.getOptions();
+		String name = options.get(CLASS_NAME_OPTION);
+		return name == null || name.trim().length() == 0? DEFAULT_CLASS_NAME : name.trim();
+	}
+
+}
@@ -0,0 +1,151 @@
+/*
+ * Copyright 2012 Evgeny Dolganov (evgenij.dolganov@gmail.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package easydroid.bench;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadInfo;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Throughput-vs-threads curves of shared structures.
+ * <br>Each workload is run with 1, 2, 4 ... max threads for fixed time,
+ * contention time is blocked and waited time of worker threads from {@link ThreadMXBean}.
+ * <p>Usage: <tt>ScalabilityBenchmark [maxThreads] [secondsPerRun] [workload name part]</tt>
+ * <br>Output is a table with columns:
+ * workload, threads, total ops/s, ops/s per thread, contention ms per second of thread.
+ */
+public class ScalabilityBenchmark {
+	
+	public static void main(String[] args) throws Exception {
+		
+		int maxThreads = args.length > 0? Integer.parseInt(args[0]) : Runtime.getRuntime().availableProcessors() * 2;
+		double seconds = args.length > 1? Double.parseDouble(args[1]) : 2;
+		String filter = args.length > 2? args[2] : null;
+		
+		ThreadMXBean mx = ManagementFactory.getThreadMXBean();
+		if(mx.isThreadContentionMonitoringSupported()){
+			mx.setThreadContentionMonitoringEnabled(true);
+		}
+		
+		System.out.println("workload\tthreads\tops/s\tops/s/thread\tcontention ms/s");
+		for(Workload workload : Workloads.all()){
+			if(filter != null && ! workload.name.contains(filter)){
+				continue;
+			}
+			//warmup
+			run(workload, 1, seconds / 2, mx);
+			for(int threads = 1; threads <= maxThreads; threads *= 2){
+				Result result = run(workload, threads, seconds, mx);
+				System.out.println(workload.name 
+						+ "\t" + threads 
+						+ "\t" + Math.round(result.opsPerSecond)
+						+ "\t" + Math.round(result.opsPerSecond / threads)
+						+ "\t" + (result.contentionMs < 0? "n/a" : String.format("%.1f", result.contentionMs / seconds / threads)));
+			}
+		}
+	}
+	
+	static class Result {
+		double opsPerSecond;
+		//-1 if not supported
+		long contentionMs;
+	}
+	
+	static Result run(final Workload workload, int threadsCount, double seconds, final ThreadMXBean mx) throws Exception {
+		
+		workload.setup();
+		
+		final boolean monitoring = mx.isThreadContentionMonitoringEnabled();
+		final CountDownLatch start = new CountDownLatch(1);
+		final long[] ops = new long[threadsCount];
+		final long[] contention = new long[threadsCount];
+		final Throwable[] errors = new Throwable[threadsCount];
+		final long durationNanos = (long)(seconds * 1000000000L);
+		
+		List<Thread> threads = new ArrayList<Thread>();
+		for(int t = 0; t < threadsCount; t++){
+			final int thread = t;
+			Thread th = new Thread("scalability-"+workload.name+"-"+t){
+				@Override
+				public void run() {
+					try {
+						start.await();
+						long contentionStart = getContention(mx, monitoring);
+						long end = System.nanoTime() + durationNanos;
+						int writePercent = workload.writePercent;
+						long count = 0;
+						int i = 0;
+						//check time not on every operation
+						while((i & 0xFF) != 0 || System.nanoTime() < end){
+							if((i % 100) < writePercent){
+								workload.write(thread, i);
+							} else {
+								workload.read(thread, i);
+							}
+							i++;
+							count++;
+						}
+						ops[thread] = count;
+						contention[thread] = getContention(mx, monitoring) - contentionStart;
+					}catch (Throwable e) {
+						errors[thread] = e;
+					}
+				}
+			};
+			threads.add(th);
+			th.start();
+		}
+		
+		long begin = System.nanoTime();
+		start.countDown();
+		for(Thread th : threads){
+			th.join();
+		}
+		double elapsed = (System.nanoTime() - begin) / 1e9;
+		
+		for(Throwable e : errors){
+			if(e != null){
+				throw new IllegalStateException("workload failed: "+workload.name, e);
+			}
+		}
+		
+		Result out = new Result();
+		long total = 0;
+		long contentionMs = 0;
+		for(int t = 0; t < threadsCount; t++){
+			total += ops[t];
+			contentionMs += contention[t];
+		}
+		out.opsPerSecond = total / elapsed;
+		out.contentionMs = monitoring? contentionMs : -1;
+		return out;
+	}
+	
+	/**
+	 * Blocked and waited time of current thread in ms
+	 */
+	private static long getContention(ThreadMXBean mx, boolean monitoring){
+		if( ! monitoring){
+			return 0;
+		}
+		ThreadInfo info = mx.getThreadInfo(Thread.currentThread().getId());
+		return info.getBlockedTime() + info.getWaitedTime();
+	}
+
+}
@@ -0,0 +1,47 @@
+/*
+ * Copyright 2012 Evgeny Dolganov (evgenij.dolganov@gmail.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package easydroid.bench;
+
+/**
+ * Operations of one shared structure for {@link ScalabilityBenchmark}
+ */
+public abstract class Workload {
+	
+	public final String name;
+	//percent of write operations
+	public final int writePercent;
+	
+	public Workload(String name, int writePercent) {
+		this.name = name;
+		this.writePercent = writePercent;
+	}
+	
+	/**
+	 * Called once before each run
+	 */
+	public void setup() throws Exception {
+		//override if need
+	}
+	
+	/**
+	 * @param i number of the operation in the current thread
+	 * @return any value to keep the result alive
+	 */
+	public abstract Object read(int thread, int i) throws Exception;
+	
+	public abstract Object write(int thread, int i) throws Exception;
+
+}
@@ -0,0 +1,310 @@
+/*
+ * Copyright 2012 Evgeny Dolganov (evgenij.dolganov@gmail.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package easydroid.bench;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+
+import easydroid.core.context.GlobalContext;
+import easydroid.core.view.UICache;
+import easydroid.gf.Action;
+import easydroid.gf.Handler;
+import easydroid.gf.annotation.Mapping;
+import easydroid.gf.config.ConfigKey;
+import easydroid.gf.core.config.ConfigServiceImpl;
+import easydroid.gf.core.deploy.TypesRepositoryImpl;
+import easydroid.util.android.async.BaseAsyncTask;
+import easydroid.util.file.GlobalLockCallback;
+import easydroid.util.file.InputStreamCallback;
+import easydroid.util.file.SimpleFileStorage;
+
+/**
+ * Workloads of shared structures with read/write mixes close to real usage
+ */
+public class Workloads {
+	
+	private static final int KEYS = 64;
+	
+	public static List<Workload> all(){
+		List<Workload> out = new ArrayList<Workload>();
+		out.add(new TypesRepositoryWorkload());
+		out.add(new ConfigServiceWorkload());
+		out.add(new FileStorageWorkload());
+		out.add(new GlobalContextWorkload());
+		out.add(new UICacheWorkload());
+		out.add(new AsyncTaskOwnerDataWorkload());
+		return out;
+	}
+	
+	
+	public static class BaseAction extends Action<Object, Object> {
+		public BaseAction() {
+			super(null);
+		}
+	}
+	public static class SubAction1 extends BaseAction {}
+	public static class SubAction2 extends BaseAction {}
+	
+	@Mapping(BaseAction.class)
+	public static class BaseHandler extends Handler<BaseAction> {
+		@Override
+		public void invoke(BaseAction action) throws Exception {}
+	}
+	
+	@Mapping(SubAction2.class)
+	public static class SubHandler extends Handler<SubAction2> {
+		@Override
+		public void invoke(SubAction2 action) throws Exception {}
+	}
+	
+	/**
+	 * Resolving of handlers per invocation, rare deploys
+	 */
+	public static class TypesRepositoryWorkload extends Workload {
+		
+		TypesRepositoryImpl repository;
+		
+		public TypesRepositoryWorkload() {
+			super("TypesRepositoryImpl", 1);
+		}
+		
+		@Override
+		public void setup() throws Exception {
+			repository = new TypesRepositoryImpl();
+			repository.put(BaseHandler.class);
+		}
+
+		@Override
+		public Object read(int thread, int i) throws Exception {
+			return repository.getTypes((i & 1) == 0? SubAction1.class : SubAction2.class);
+		}
+
+		@Override
+		public Object write(int thread, int i) throws Exception {
+			return repository.put((i & 1) == 0? SubHandler.class : BaseHandler.class);
+		}
+	}
+	
+	
+	public static class IntKey extends ConfigKey<Integer> {
+		@Override
+		public boolean hasDefaultValue() {
+			return true;
+		}
+		@Override
+		public Integer getDefaultValue() throws Exception {
+			return 0;
+		}
+	}
+	
+	public static class FlagKey extends ConfigKey<Boolean> {
+		@Override
+		public boolean hasDefaultValue() {
+			return true;
+		}
+		@Override
+		public Boolean getDefaultValue() throws Exception {
+			return Boolean.FALSE;
+		}
+	}
+	
+	/**
+	 * Config reads by handlers, rare config changes
+	 */
+	public static class ConfigServiceWorkload extends Workload {
+		
+		ConfigServiceImpl config;
+		IntKey intKey = new IntKey();
+		FlagKey flagKey = new FlagKey();
+		
+		public ConfigServiceWorkload() {
+			super("ConfigServiceImpl", 1);
+		}
+		
+		@Override
+		public void setup() throws Exception {
+			config = new ConfigServiceImpl();
+		}
+		
+		@Override
+		public Object read(int thread, int i) throws Exception {
+			if((i & 1) == 0){
+				return config.getConfig(intKey);
+			}
+			return config.isTrueConfig(flagKey);
+		}
+		
+		@Override
+		public Object write(int thread, int i) throws Exception {
+			config.setConfig(IntKey.class, i);
+			return null;
+		}
+	}
+	
+	
+	/**
+	 * Reads of absent files (lock path only), some global locks.
+	 * Uses file locks of AbstractFileStorage's LockManager.
+	 */
+	public static class FileStorageWorkload extends Workload {
+		
+		SimpleFileStorage storage = new SimpleFileStorage();
+		String[] paths;
+		InputStreamCallback readCallback = new InputStreamCallback() {
+			@Override
+			public void onOpenStream(java.io.FileInputStream is) throws Exception {}
+		};
+		GlobalLockCallback lockCallback = new GlobalLockCallback() {
+			@Override
+			public void onLock() throws Exception {}
+		};
+		
+		public FileStorageWorkload() {
+			super("AbstractFileStorage/LockManager", 5);
+		}
+		
+		@Override
+		public void setup() throws Exception {
+			String dir = System.getProperty("java.io.tmpdir") + "/easydroid-bench-absent";
+			paths = new String[KEYS];
+			for(int i = 0; i < KEYS; i++){
+				paths[i] = dir + "/file-" + i;
+			}
+		}
+
+		@Override
+		public Object read(int thread, int i) throws Exception {
+			storage.readFile(paths[(thread * 7 + i) & (KEYS - 1)], readCallback);
+			return null;
+		}
+
+		@Override
+		public Object write(int thread, int i) throws Exception {
+			storage.globalLock(lockCallback);
+			return null;
+		}
+	}
+	
+	
+	/**
+	 * Lookups of singletons, rare puts
+	 */
+	public static class GlobalContextWorkload extends Workload {
+		
+		GlobalContext context = GlobalContext.getInstance();
+		Class<?>[] types = {String.class, Integer.class, Long.class, Object.class, 
+				List.class, ArrayList.class, Workload.class, Workloads.class};
+		
+		public GlobalContextWorkload() {
+			super("GlobalContext", 5);
+		}
+		
+		@Override
+		public void setup() throws Exception {
+			for(Class<?> type : types){
+				context.putSingleton(type, type.getName());
+			}
+		}
+
+		@Override
+		public Object read(int thread, int i) throws Exception {
+			return context.getSingleton(types[i & (types.length - 1)]);
+		}
+
+		@Override
+		public Object write(int thread, int i) throws Exception {
+			Class<?> type = types[i & (types.length - 1)];
+			context.putSingleton(type, type.getName());
+			return null;
+		}
+	}
+	
+	
+	/**
+	 * View cache reads per screen, puts on view creation
+	 */
+	public static class UICacheWorkload extends Workload {
+		
+		UICache cache;
+		Object[] owners;
+		
+		public UICacheWorkload() {
+			super("UICache", 10);
+		}
+		
+		@Override
+		public void setup() throws Exception {
+			cache = new UICache();
+			owners = new Object[KEYS];
+			for(int i = 0; i < KEYS; i++){
+				owners[i] = new Object();
+				cache.put(owners[i], String.class, "view");
+			}
+		}
+
+		@Override
+		public Object read(int thread, int i) throws Exception {
+			return cache.get(owners[(thread * 7 + i) & (KEYS - 1)], String.class);
+		}
+
+		@Override
+		public Object write(int thread, int i) throws Exception {
+			cache.put(owners[(thread * 7 + i) & (KEYS - 1)], Integer.class, "view");
+			return null;
+		}
+	}
+	
+	
+	/**
+	 * Requests of async tasks: put of owner's request and check at the end.
+	 * <br>Tasks can't be created with stubs of Android, 
+	 * so static methods of owner data are called by reflection.
+	 */
+	public static class AsyncTaskOwnerDataWorkload extends Workload {
+		
+		Method putOwnerData;
+		Method checkOwnerReqForOverdue;
+		String[] owners;
+		
+		public AsyncTaskOwnerDataWorkload() {
+			super("BaseAsyncTask.ownerData", 50);
+		}
+		
+		@Override
+		public void setup() throws Exception {
+			putOwnerData = BaseAsyncTask.class.getDeclaredMethod("putOwnerData", String.class, String.class);
+			putOwnerData.setAccessible(true);
+			checkOwnerReqForOverdue = BaseAsyncTask.class.getDeclaredMethod("checkOwnerReqForOverdue", String.class, String.class);
+			checkOwnerReqForOverdue.setAccessible(true);
+			owners = new String[KEYS];
+			for(int i = 0; i < KEYS; i++){
+				owners[i] = "owner-" + i;
+			}
+		}
+
+		@Override
+		public Object read(int thread, int i) throws Exception {
+			return checkOwnerReqForOverdue.invoke(null, owners[(thread * 7 + i) & (KEYS - 1)], "req");
+		}
+
+		@Override
+		public Object write(int thread, int i) throws Exception {
+			return putOwnerData.invoke(null, owners[(thread * 7 + i) & (KEYS - 1)], "req");
+		}
+	}
+
+}
@@ -0,0 +1,218 @@
+/*
+ * Copyright 2012 Evgeny Dolganov (evgenij.dolganov@gmail.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package easydroid.gf.bench;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.lang.reflect.Method;
+
+import easydroid.gf.Action;
+import easydroid.gf.Filter;
+import easydroid.gf.Handler;
+import easydroid.gf.Interceptor;
+import easydroid.gf.annotation.Mapping;
+import easydroid.gf.annotation.Pooled;
+import easydroid.gf.annotation.Shared;
+import easydroid.gf.core.Engine;
+import easydroid.gf.extra.recorder.FlightRecorder;
+import easydroid.gf.extra.trace.SlowInvocationDetector;
+import easydroid.gf.extra.trace.TraceSampler;
+import easydroid.gf.key.CollectMetrics;
+import easydroid.gf.key.FlightRecording;
+import easydroid.gf.key.SlowInvocations;
+import easydroid.gf.key.TraceHandlers;
+import easydroid.gf.key.TraceSampling;
+import easydroid.gf.service.FilterChain;
+import easydroid.gf.service.InterceptorChain;
+
+/**
+ * Regression check of allocation-free invoke when tracing, metrics, 
+ * slow invocations detector and flight recorder are off.
+ * <br>Measures allocated bytes of the current thread (<tt>com.sun.management.ThreadMXBean</tt>) per invoke:
+ * <ul>
+ * <li>&#064;Shared and &#064;Pooled handlers (with shared filter and interceptor) must allocate nothing</li>
+ * <li>plain handler must allocate only its own instance</li>
+ * </ul>
+ * Run: <tt>ant bench-alloc</tt>. Exit code is 1 if the check fails.
+ */
+public class AllocationCheck {
+	
+	static final int WARMUP = 200000;
+	static final int INVOKES = 1000000;
+	
+	/** Allowed bytes per invoke: TLAB and JIT noise */
+	static final double TOLERANCE = 0.5;
+	
+	
+	public static class PlainAction extends Action<Integer, Integer> {
+		public PlainAction() {
+			super(1);
+		}
+	}
+	
+	public static class SharedAction extends Action<Integer, Integer> {
+		public SharedAction() {
+			super(1);
+		}
+	}
+	
+	public static class PooledAction extends Action<Integer, Integer> {
+		public PooledAction() {
+			super(1);
+		}
+	}
+	
+	@Mapping(PlainAction.class)
+	public static class PlainHandler extends Handler<PlainAction> {
+		@Override
+		public void invoke(PlainAction action) throws Exception {
+			action.setOutput(action.input());
+		}
+	}
+	
+	@Shared
+	@Mapping(SharedAction.class)
+	public static class SharedHandler extends Handler<SharedAction> {
+		@Override
+		public void invoke(SharedAction action) throws Exception {
+			action.setOutput(action.input());
+		}
+	}
+	
+	@Pooled
+	@Mapping(PooledAction.class)
+	public static class PooledHandler extends Handler<PooledAction> {
+		@Override
+		public void invoke(PooledAction action) throws Exception {
+			action.setOutput(action.input());
+		}
+	}
+	
+	@Shared
+	@Mapping({SharedAction.class, PooledAction.class})
+	public static class SharedInterceptor extends Interceptor<Action<Integer, Integer>> {
+		@Override
+		public void invoke(Action<Integer, Integer> action, InterceptorChain chain) throws Exception {
+			chain.doNext();
+		}
+	}
+	
+	@Shared
+	public static class SharedFilter extends Filter {
+		@Override
+		public void invoke(Action<?, ?> action, FilterChain chain) throws Exception {
+			chain.doNext();
+		}
+	}
+	
+	
+	public static void main(String[] args) throws Exception {
+		
+		ThreadMXBean mx = ManagementFactory.getThreadMXBean();
+		Method allocatedBytes = getAllocatedBytesMethod(mx);
+		if(allocatedBytes == null){
+			System.out.println("SKIPPED: ThreadMXBean.getThreadAllocatedBytes is not supported by this JVM");
+			return;
+		}
+		
+		Engine engine = new Engine();
+		engine.setConfig(TraceHandlers.class, false);
+		engine.setConfig(TraceSampling.class, (TraceSampler)null);
+		engine.setConfig(CollectMetrics.class, false);
+		engine.setConfig(SlowInvocations.class, (SlowInvocationDetector)null);
+		engine.setConfig(FlightRecording.class, (FlightRecorder)null);
+		engine.putHandler(PlainHandler.class);
+		engine.putHandler(SharedHandler.class);
+		engine.putHandler(PooledHandler.class);
+		engine.putInterceptor(SharedInterceptor.class);
+		engine.putFilter(SharedFilter.class);
+		
+		double handlerSize = measureNewHandler(mx, allocatedBytes);
+		double plain = measure(engine, new PlainAction(), mx, allocatedBytes);
+		double shared = measure(engine, new SharedAction(), mx, allocatedBytes);
+		double pooled = measure(engine, new PooledAction(), mx, allocatedBytes);
+		
+		boolean ok = true;
+		ok &= check("plain", plain, handlerSize);
+		ok &= check("@Shared", shared, 0);
+		ok &= check("@Pooled", pooled, 0);
+		
+		if( ! ok){
+			System.out.println("FAILED");
+			System.exit(1);
+		}
+		System.out.println("OK");
+	}
+	
+	private static boolean check(String name, double bytes, double expected){
+		boolean ok = bytes <= expected + TOLERANCE;
+		System.out.println(String.format("%-8s %8.2f bytes/invoke (expected %.2f) %s", 
+				name, bytes, expected, ok? "ok" : "ALLOCATES"));
+		return ok;
+	}
+	
+	private static double measure(Engine engine, Action<?, ?> action, 
+			ThreadMXBean mx, Method allocatedBytes) throws Exception {
+		
+		for (int i = 0; i < WARMUP; i++) {
+			engine.invoke(action);
+		}
+		long start = getAllocatedBytes(mx, allocatedBytes);
+		for (int i = 0; i < INVOKES; i++) {
+			engine.invoke(action);
+		}
+		return (double)(getAllocatedBytes(mx, allocatedBytes) - start) / INVOKES;
+	}
+	
+	/**
+	 * Size of the handler instance created by plain lifecycle on every invoke
+	 */
+	private static double measureNewHandler(ThreadMXBean mx, Method allocatedBytes) throws Exception {
+		
+		Object[] sink = new Object[1];
+		for (int i = 0; i < WARMUP; i++) {
+			sink[0] = PlainHandler.class.newInstance();
+		}
+		long start = getAllocatedBytes(mx, allocatedBytes);
+		for (int i = 0; i < INVOKES; i++) {
+			sink[0] = PlainHandler.class.newInstance();
+		}
+		return (double)(getAllocatedBytes(mx, allocatedBytes) - start) / INVOKES;
+	}
+	
+	
+	private static Method getAllocatedBytesMethod(ThreadMXBean mx){
+		try {
+			Class<?> type = Class.forName("com.sun.management.ThreadMXBean");
+			if( ! type.isInstance(mx)){
+				return null;
+			}
+			Method method = type.getMethod("getThreadAllocatedBytes", long.class);
+			method.setAccessible(true);
+			Method enabled = type.getMethod("setThreadAllocatedMemoryEnabled", boolean.class);
+			enabled.setAccessible(true);
+			enabled.invoke(mx, true);
+			return method;
+		}catch (Exception e) {
+			return null;
+		}
+	}
+	
+	private static long getAllocatedBytes(ThreadMXBean mx, Method allocatedBytes) throws Exception {
+		return (Long)allocatedBytes.invoke(mx, Thread.currentThread().getId());
+	}
+
+}
@@ -0,0 +1,186 @@
+/*
+ * Copyright 2012 Evgeny Dolganov (evgenij.dolganov@gmail.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package easydroid.gf.bench;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import easydroid.core.annotation.Inject;
+import easydroid.gf.Action;
+import easydroid.gf.Filter;
+import easydroid.gf.Handler;
+import easydroid.gf.Interceptor;
+import easydroid.gf.annotation.Mapping;
+import easydroid.gf.core.Engine;
+import easydroid.gf.key.TraceHandlers;
+import easydroid.gf.service.FilterChain;
+import easydroid.gf.service.InterceptorChain;
+
+/**
+ * Actions, handlers, filters and interceptors of benchmarks
+ */
+public class BenchObjects {
+	
+	public static final int MAX_FILTERS = 8;
+	public static final int MAX_INTERCEPTORS = 8;
+	
+	
+	public static class Plain extends Action<Integer, Integer> {
+		public Plain(Integer input) {
+			super(input);
+		}
+	}
+	
+	public static class Injected extends Action<Integer, Integer> {
+		public Injected(Integer input) {
+			super(input);
+		}
+	}
+	
+	/**
+	 * Sub invokes itself while input is positive
+	 */
+	public static class Chain extends Action<Integer, Integer> {
+		public Chain(Integer input) {
+			super(input);
+		}
+	}
+	
+	
+	@Mapping(Plain.class)
+	public static class PlainHandler extends Handler<Plain> {
+		@Override
+		public void invoke(Plain action) throws Exception {
+			action.setOutput(action.input() + 1);
+		}
+	}
+	
+	@Mapping(Injected.class)
+	public static class InjectedHandler extends Handler<Injected> {
+		
+		@Inject Service1 s1;
+		@Inject Service2 s2;
+		@Inject Service3 s3;
+		@Inject Service4 s4;
+		
+		@Override
+		public void invoke(Injected action) throws Exception {
+			action.setOutput(action.input() + s1.val + s2.val + s3.val + s4.val);
+		}
+	}
+	
+	@Mapping(Chain.class)
+	public static class ChainHandler extends Handler<Chain> {
+		@Override
+		public void invoke(Chain action) throws Exception {
+			int depth = action.input();
+			if(depth <= 0){
+				action.setOutput(0);
+				return;
+			}
+			Integer sub = subInvoke(new Chain(depth - 1));
+			action.setOutput(sub + 1);
+		}
+	}
+	
+	public static class Service1 { int val = 1; }
+	public static class Service2 { int val = 2; }
+	public static class Service3 { int val = 3; }
+	public static class Service4 { int val = 4; }
+	
+	/**
+	 * Not injected objects to make context bigger
+	 */
+	public static class ContextObject { }
+	
+	
+	public static class BaseFilter extends Filter {
+		@Override
+		public void invoke(Action<?, ?> action, FilterChain chain) throws Exception {
+			chain.doNext();
+		}
+	}
+	
+	public static class F1 extends BaseFilter {}
+	public static class F2 extends BaseFilter {}
+	public static class F3 extends BaseFilter {}
+	public static class F4 extends BaseFilter {}
+	public static class F5 extends BaseFilter {}
+	public static class F6 extends BaseFilter {}
+	public static class F7 extends BaseFilter {}
+	public static class F8 extends BaseFilter {}
+	
+	@SuppressWarnings("rawtypes")
+	public static class BaseInterceptor extends Interceptor {
+		@Override
+		public void invoke(Action action, InterceptorChain chain) throws Exception {
+			chain.doNext();
+		}
+	}
+	
+	@Mapping({Plain.class, Injected.class, Chain.class}) public static class I1 extends BaseInterceptor {}
+	@Mapping({Plain.class, Injected.class, Chain.class}) public static class I2 extends BaseInterceptor {}
+	@Mapping({Plain.class, Injected.class, Chain.class}) public static class I3 extends BaseInterceptor {}
+	@Mapping({Plain.class, Injected.class, Chain.class}) public static class I4 extends BaseInterceptor {}
+	@Mapping({Plain.class, Injected.class, Chain.class}) public static class I5 extends BaseInterceptor {}
+	@Mapping({Plain.class, Injected.class, Chain.class}) public static class I6 extends BaseInterceptor {}
+	@Mapping({Plain.class, Injected.class, Chain.class}) public static class I7 extends BaseInterceptor {}
+	@Mapping({Plain.class, Injected.class, Chain.class}) public static class I8 extends BaseInterceptor {}
+	
+	private static final List<Class<? extends Filter>> FILTERS = new ArrayList<Class<? extends Filter>>();
+	private static final List<Class<? extends Interceptor<?>>> INTERCEPTORS = new ArrayList<Class<? extends Interceptor<?>>>();
+	
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	private static void addInterceptor(Class type){
+		INTERCEPTORS.add(type);
+	}
+	
+	static {
+		FILTERS.add(F1.class); FILTERS.add(F2.class); FILTERS.add(F3.class); FILTERS.add(F4.class);
+		FILTERS.add(F5.class); FILTERS.add(F6.class); FILTERS.add(F7.class); FILTERS.add(F8.class);
+		addInterceptor(I1.class); addInterceptor(I2.class); addInterceptor(I3.class); addInterceptor(I4.class);
+		addInterceptor(I5.class); addInterceptor(I6.class); addInterceptor(I7.class); addInterceptor(I8.class);
+	}
+	
+	/**
+	 * Engine with all handlers and the first filters and interceptors
+	 */
+	public static Engine createEngine(int filters, int interceptors, int contextObjects, boolean tracing){
+		
+		if(filters > MAX_FILTERS || interceptors > MAX_INTERCEPTORS){
+			throw new IllegalArgumentException("max filters: "+MAX_FILTERS+", max interceptors: "+MAX_INTERCEPTORS);
+		}
+		
+		Engine engine = new Engine();
+		engine.putHandler(PlainHandler.class);
+		engine.putHandler(InjectedHandler.class);
+		engine.putHandler(ChainHandler.class);
+		engine.setFilterTypes(FILTERS.subList(0, filters));
+		engine.setInterceptorTypes(INTERCEPTORS.subList(0, interceptors));
+		
+		engine.addToContext(new Service1());
+		engine.addToContext(new Service2());
+		engine.addToContext(new Service3());
+		engine.addToContext(new Service4());
+		for(int i = 0; i < contextObjects; i++){
+			engine.addToContext(new ContextObject());
+		}
+		
+		engine.setConfig(TraceHandlers.class, tracing);
+		return engine;
+	}
+
+}
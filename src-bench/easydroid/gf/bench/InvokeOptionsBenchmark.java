@@ -0,0 +1,95 @@
+/*
+ * Copyright 2012 Evgeny Dolganov (evgenij.dolganov@gmail.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package easydroid.gf.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import easydroid.gf.bench.BenchObjects.Injected;
+import easydroid.gf.bench.BenchObjects.Plain;
+import easydroid.gf.core.Engine;
+
+/**
+ * Throughput and latency of {@link Engine#invoke(easydroid.gf.Action)}
+ * with injections, context objects and tracing (one filter and one interceptor).
+ * <br>Run: <tt>ant bench -Djmh.home=... -Dbench.args="InvokeOptionsBenchmark -prof gc"</tt>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class InvokeOptionsBenchmark {
+	
+	//handler without injections or with 4 injected fields
+	@Param({"false", "true"})
+	public boolean inject;
+	
+	@Param({"0", "32"})
+	public int contextObjects;
+	
+	@Param({"false", "true"})
+	public boolean tracing;
+	
+	private Engine engine;
+	
+	@Setup
+	public void setup(){
+		engine = BenchObjects.createEngine(1, 1, contextObjects, tracing);
+	}
+	
+	@Benchmark
+	public Object invoke(){
+		if(inject){
+			return engine.invoke(new Injected(1));
+		}
+		return engine.invoke(new Plain(1));
+	}
+	
+	@Benchmark
+	public Object invokeUnwrap() throws Exception {
+		if(inject){
+			return engine.invokeUnwrap(new Injected(1));
+		}
+		return engine.invokeUnwrap(new Plain(1));
+	}
+	
+	@Benchmark
+	@Threads(4)
+	public Object invoke4Threads(){
+		return invoke();
+	}
+	
+	@Benchmark
+	@Threads(16)
+	public Object invoke16Threads(){
+		return invoke();
+	}
+
+}
@@ -0,0 +1,75 @@
+/*
+ * Copyright 2012 Evgeny Dolganov (evgenij.dolganov@gmail.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package easydroid.gf.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import easydroid.gf.bench.BenchObjects.Chain;
+import easydroid.gf.core.Engine;
+
+/**
+ * Cost of nested {@link easydroid.gf.service.InvocationService#subInvoke(easydroid.gf.Action)} chains.
+ * <br>Run: <tt>ant bench -Djmh.home=... -Dbench.args="SubInvokeBenchmark -prof gc"</tt>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SubInvokeBenchmark {
+	
+	@Param({"1", "4", "16"})
+	public int depth;
+	
+	@Param({"0", "4"})
+	public int interceptors;
+	
+	@Param({"false", "true"})
+	public boolean tracing;
+	
+	private Engine engine;
+	
+	@Setup
+	public void setup(){
+		engine = BenchObjects.createEngine(0, interceptors, 0, tracing);
+	}
+	
+	@Benchmark
+	public Object subInvokeChain(){
+		return engine.invoke(new Chain(depth));
+	}
+	
+	@Benchmark
+	@Threads(4)
+	public Object subInvokeChain4Threads(){
+		return subInvokeChain();
+	}
+
+}
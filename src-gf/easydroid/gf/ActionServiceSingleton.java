@@ -1,9 +1,12 @@
 package easydroid.gf;
 
+import java.util.concurrent.Executor;
+
 import easydroid.core.Singleton;
 import easydroid.core.annotation.PostConstruct;
 import easydroid.core.exception.ExceptionWrapper;
 import easydroid.gf.exception.invoke.InvocationException;
+import easydroid.gf.service.ActionFuture;
 import easydroid.gf.service.ActionService;
 
 public abstract class ActionServiceSingleton extends Singleton implements ActionService {
@@ -26,5 +29,15 @@ public abstract class ActionServiceSingleton extends Singleton implements Action
 	public <I, O> O invokeUnwrap(Action<I, O> action) throws InvocationException, Exception {
 		return (O) actionService.invokeUnwrap(action);
 	}
+	
+	@Override
+	public <I, O> ActionFuture<O> invokeAsync(Action<I, O> action) throws InvocationException {
+		return actionService.invokeAsync(action);
+	}
+	
+	@Override
+	public <I, O> ActionFuture<O> invokeAsync(Action<I, O> action, Executor executor) throws InvocationException {
+		return actionService.invokeAsync(action, executor);
+	}
 
 }
@@ -15,6 +15,8 @@
  */
 package easydroid.gf;
 
+import java.util.List;
+
 import easydroid.gf.service.InvocationService;
 
 /**
@@ -53,6 +55,23 @@ public abstract class MappingObject extends InvocationObject {
 		return (O)invocation.subInvoke(action);
 	}
 
+	/**
+	 * Sub invoke independent actions in parallel.
+	 * <br>Each action is processed as in {@link #subInvoke(Action)}, outputs are in the actions:
+	 * <pre>
+	 * GetUser getUser = new GetUser(id);
+	 * GetOrders getOrders = new GetOrders(id);
+	 * subInvokeAll(Util.list(getUser, getOrders));
+	 * 
+	 * User user = getUser.getOutput();
+	 * List&lt;Order&gt; orders = getOrders.getOutput();
+	 * </pre>
+	 * @throws Exception first exception in order of actions, it is thrown after the end of all actions
+	 */
+	protected void subInvokeAll(List<? extends Action<?,?>> actions) throws Exception {
+		invocation.subInvokeAll(actions);
+	}
+
 	public void setInvocation(InvocationService invocation) {
 		this.invocation = invocation;
 	}
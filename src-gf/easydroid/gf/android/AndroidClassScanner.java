@@ -1,9 +1,13 @@
 package easydroid.gf.android;
 
+import java.io.BufferedInputStream;
 import java.io.File;
+import java.io.FileInputStream;
+import java.io.InputStream;
 import java.lang.reflect.Modifier;
 import java.net.URL;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Enumeration;
 import java.util.HashSet;
 import java.util.List;
@@ -11,9 +15,11 @@ import java.util.Set;
 
 import android.app.Application;
 import dalvik.system.DexFile;
-import easydroid.gf.extra.scan.ClassScanner;
+import easydroid.gf.core.util.ClassFileHierarchy;
+import easydroid.gf.core.util.ClassFileInfo;
+import easydroid.gf.extra.scan.CacheableClassScanner;
 
-public class AndroidClassScanner implements ClassScanner {
+public class AndroidClassScanner implements CacheableClassScanner {
 	
 	public volatile static Application application;
 
@@ -33,6 +39,32 @@ public class AndroidClassScanner implements ClassScanner {
 
 	}
 	
+	@Override
+	public List<File> getSources(String packageRoot) {
+		Application app = application;
+		if(app == null){
+			return null;
+		}
+		String sourcePath = app.getApplicationInfo().sourceDir;
+		return sourcePath == null? null : Collections.singletonList(new File(sourcePath));
+	}
+	
+	@Override
+	public ClassLoader getClassLoader() {
+		Application app = application;
+		return app == null? null : app.getClass().getClassLoader();
+	}
+	
+	@Override
+	public File getCacheDir() {
+		Application app = application;
+		if(app == null){
+			return null;
+		}
+		File cacheDir = app.getCacheDir();
+		return cacheDir == null? null : new File(cacheDir, "gf-scan");
+	}
+	
 	private Set<Class<?>> scan(Application application, String packageRoot, Class<?> parentClass) throws Exception {
 		
 		HashSet<Class<?>> out = new HashSet<Class<?>>();
@@ -61,19 +93,49 @@ public class AndroidClassScanner implements ClassScanner {
 			}
 		}
 
+		ClassLoader classLoader = application.getClass().getClassLoader();
+		ClassFileHierarchy hierarchy = new ClassFileHierarchy(classLoader);
+		String parentName = ClassFileHierarchy.getInternalName(parentClass);
 		for (String path : paths) {
 			File file = new File(path);
-			ClassLoader classLoader = application.getClass().getClassLoader();
-			scanForModelClasses(file, packageRoot, parentClass, classLoader, out);
+			scanForModelClasses(file, packageRoot, parentClass, classLoader, hierarchy, parentName, out);
 		}
 		
 		return out;
 	}
 
-	private void scanForModelClasses(File path, String packageRoot, Class<?> parentClass, ClassLoader classLoader, Set<Class<?>> out) {
+	/**
+	 * @return false if the class file is abstract or it is not a child of parent type
+	 */
+	private boolean mayBeChild(File classFile, ClassFileHierarchy hierarchy, String parentName) {
+		ClassFileInfo info = null;
+		try {
+			InputStream is = new BufferedInputStream(new FileInputStream(classFile));
+			try {
+				info = ClassFileInfo.read(is);
+			}finally {
+				is.close();
+			}
+		}catch (Exception e) {
+			//check loaded class
+			return true;
+		}
+		if(info == null){
+			return true;
+		}
+		if(info.isAbstract()){
+			return false;
+		}
+		hierarchy.putInfo(info);
+		Boolean child = hierarchy.isSubtype(info, parentName);
+		return child == null || child;
+	}
+
+	private void scanForModelClasses(File path, String packageRoot, Class<?> parentClass, ClassLoader classLoader, 
+			ClassFileHierarchy hierarchy, String parentName, Set<Class<?>> out) {
 		if (path.isDirectory()) {
 			for (File file : path.listFiles()) {
-				scanForModelClasses(file, packageRoot, parentClass, classLoader, out);
+				scanForModelClasses(file, packageRoot, parentClass, classLoader, hierarchy, parentName, out);
 			}
 		}
 		else {
@@ -101,6 +163,11 @@ public class AndroidClassScanner implements ClassScanner {
 				}
 
 				className = className.substring(packageNameIndex);
+				
+				// check class file before loading
+				if ( ! mayBeChild(path, hierarchy, parentName)) {
+					return;
+				}
 			}
 
 			try {
@@ -0,0 +1,74 @@
+/*
+ * Copyright 2012 Evgeny Dolganov (evgenij.dolganov@gmail.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package easydroid.gf.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+import easydroid.gf.Filter;
+import easydroid.gf.Handler;
+import easydroid.gf.Interceptor;
+import easydroid.gf.extra.invocation.Resettable;
+
+/**
+ * Annotation for stateful but resettable <tt>Handlers</tt>, <tt>Interceptors</tt> or <tt>Filters</tt>.
+ * <br><tt>Engine</tt> takes such object from the bounded pool of its type 
+ * and returns it back after invocation. So one object is used by one invocation at a time.
+ * <p>Object is initialized before every invocation as usual, 
+ * but fields with not null values are not injected again.
+ * Implement {@link Resettable} for clearing the state before returning to pool.
+ * <p>Example:
+ * <pre>
+ * &#064;Pooled(4)
+ * &#064;Mapping(SomeAction.class)
+ * public class SomeHandler extends Handler&lt;SomeAction&gt; implements Resettable {
+ * 
+ *   &#064;Inject
+ *   Connection connection; //<----- object from invocation context
+ *   
+ *   StringBuilder buffer = new StringBuilder();
+ * 
+ *   public void invoke(SomeAction action) throws Exception {
+ *     ...
+ *   }
+ *   
+ *   public void reset() {
+ *     connection = null;
+ *     buffer.setLength(0);
+ *   }
+ * }
+ * </pre>
+ * <p><b>Note:</b> Can't be used with {@link Shared} annotation.
+ *
+ * @author Evgeny Dolganov
+ * @see Shared
+ * @see Resettable
+ * @see Handler
+ * @see Interceptor
+ * @see Filter
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface Pooled {
+	
+	/**
+	 * Max count of free objects in pool
+	 */
+	int value() default 8;
+
+}
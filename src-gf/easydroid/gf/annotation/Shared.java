@@ -0,0 +1,64 @@
+/*
+ * Copyright 2012 Evgeny Dolganov (evgenij.dolganov@gmail.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package easydroid.gf.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+import easydroid.gf.Filter;
+import easydroid.gf.Handler;
+import easydroid.gf.Interceptor;
+
+/**
+ * Annotation for stateless <tt>Handlers</tt>, <tt>Interceptors</tt> or <tt>Filters</tt>.
+ * <br><tt>Engine</tt> creates and initializes such object only once 
+ * and uses it for all invocations (also from different threads).
+ * <p>Example:
+ * <pre>
+ * &#064;Shared
+ * &#064;Mapping(SomeAction.class)
+ * public class SomeHandler extends Handler&lt;SomeAction&gt;{
+ * 
+ *   &#064;Inject
+ *   Storage storage; //<----- injected once
+ * 
+ *   public void invoke(SomeAction action) throws Exception {
+ *     action.setOutput(storage.find(action.input()));
+ *   }
+ * }
+ * </pre>
+ * <p><b>Note:</b>
+ * <ul>
+ *   <li>Object must be thread-safe and must not keep invocation state in its fields.</li>
+ *   <li>Object is injected only by engine's context objects. 
+ *   Objects from invocation context can't be injected into it.</li>
+ *   <li><tt>subInvoke</tt> and <tt>addToInvocationContext</tt> work with current invocation as usual.</li>
+ *   <li>Can't be used with {@link Pooled} annotation.</li>
+ * </ul>
+ *
+ * @author Evgeny Dolganov
+ * @see Pooled
+ * @see Handler
+ * @see Interceptor
+ * @see Filter
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface Shared {
+
+}
@@ -15,9 +15,12 @@
  */
 package easydroid.gf.common;
 
+import java.util.concurrent.Executor;
+
 import easydroid.core.exception.ExceptionWrapper;
 import easydroid.gf.Action;
 import easydroid.gf.exception.invoke.InvocationException;
+import easydroid.gf.service.ActionFuture;
 import easydroid.gf.service.ActionService;
 
 public abstract class ActionServiceWrapper implements ActionService {
@@ -37,5 +40,13 @@ public abstract class ActionServiceWrapper implements ActionService {
 	public <I, O> O invokeUnwrap(Action<I, O> action) throws InvocationException, Exception {
 		return actionService.invokeUnwrap(action);
 	}
+	
+	public <I, O> ActionFuture<O> invokeAsync(Action<I, O> action) throws InvocationException {
+		return actionService.invokeAsync(action);
+	}
+	
+	public <I, O> ActionFuture<O> invokeAsync(Action<I, O> action, Executor executor) throws InvocationException {
+		return actionService.invokeAsync(action, executor);
+	}
 
 }
@@ -0,0 +1,44 @@
+/*
+ * Copyright 2012 Evgeny Dolganov (evgenij.dolganov@gmail.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package easydroid.gf.config;
+
+import easydroid.gf.exception.config.GetConfigValueException;
+
+/**
+ * Resolved accessor of the config key for hot code.
+ * <br>Value is cached until the next config change, so reads have no locks and allocations.
+ * <pre>
+ * ConfigHandle&lt;Boolean&gt; traceHandlers = engine.handle(TraceHandlers.class);
+ * ...
+ * if(traceHandlers.isTrue()){
+ *   ...
+ * }
+ * </pre>
+ * @see easydroid.gf.service.ConfigService#handle(Class)
+ */
+public interface ConfigHandle<T> {
+	
+	/**
+	 * Analog of <tt>getConfig(key)</tt>
+	 */
+	T get() throws GetConfigValueException;
+	
+	/**
+	 * Analog of <tt>isTrueConfig(key)</tt>
+	 */
+	boolean isTrue() throws GetConfigValueException;
+
+}
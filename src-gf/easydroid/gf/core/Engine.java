@@ -15,8 +15,11 @@
  */
 package easydroid.gf.core;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
 import java.util.Properties;
+import java.util.concurrent.Executor;
 
 
 import easydroid.core.annotation.Inject;
@@ -25,6 +28,7 @@ import easydroid.gf.Action;
 import easydroid.gf.Filter;
 import easydroid.gf.Handler;
 import easydroid.gf.Interceptor;
+import easydroid.gf.config.ConfigHandle;
 import easydroid.gf.config.ConfigKey;
 import easydroid.gf.core.action.ActionServiceImpl;
 import easydroid.gf.core.config.ConfigServiceImpl;
@@ -32,15 +36,25 @@ import easydroid.gf.core.context.ContextServiceImpl;
 import easydroid.gf.core.context.StaticContext;
 import easydroid.gf.core.deploy.DeployServiceImpl;
 import easydroid.gf.core.deploy.ResourseService;
+import easydroid.gf.core.util.CoreUtil;
 import easydroid.gf.exception.config.EmptyClassException;
 import easydroid.gf.exception.config.GetConfigValueException;
 import easydroid.gf.exception.config.ParsePropertiesException;
 import easydroid.gf.exception.deploy.NoMappingAnnotationException;
 import easydroid.gf.exception.deploy.NotOneHandlerException;
 import easydroid.gf.exception.invoke.InvocationException;
+import easydroid.gf.exception.invoke.InvokeAllException;
 import easydroid.gf.extra.invocation.InvocationObjectInitializer;
+import easydroid.gf.extra.metrics.MetricsSnapshot;
+import easydroid.gf.extra.registry.HandlerRegistry;
+import easydroid.gf.extra.trace.Trace;
+import easydroid.gf.extra.trace.TraceSampler;
+import easydroid.gf.extra.invocation.InvokeAllErrors;
+import easydroid.gf.extra.invocation.InvokeAllOrder;
 import easydroid.gf.extra.scan.ClassScanner;
+import easydroid.gf.key.TraceSampling;
 import easydroid.gf.key.scan.ClassScannerKey;
+import easydroid.gf.service.ActionFuture;
 import easydroid.gf.service.ActionService;
 import easydroid.gf.service.ConfigService;
 import easydroid.gf.service.ContextService;
@@ -73,8 +87,10 @@ public class Engine implements ActionService, DeployService, ConfigService, Cont
 	private String name;
 	private ConfigService config;
 	private DeployService deploy;
-	private ActionService actions;
+	private ActionServiceImpl actions;
 	private ContextService context;
+	private ResourseService resourse;
+	private ConfigHandle<TraceSampler> traceSampling;
 	
 	/**
 	 * Create new instance of <tt>Engine</tt> with empty name.
@@ -94,11 +110,13 @@ public class Engine implements ActionService, DeployService, ConfigService, Cont
 		config = new ConfigServiceImpl();
 		deploy = new DeployServiceImpl(config);
 		context = new ContextServiceImpl();
+		resourse = (ResourseService)deploy;
 		actions = new ActionServiceImpl(
 				this,
 				config, 
-				(ResourseService)deploy,
+				resourse,
 				(StaticContext)context);
+		traceSampling = config.handle(TraceSampling.class);
 		
 	}
 
@@ -196,6 +214,113 @@ public class Engine implements ActionService, DeployService, ConfigService, Cont
 		return (O)actions.invokeUnwrap(action);
 	}
 	
+	/**
+	 * Handle the {@link Action} object with this <tt>Engine</tt> in other thread.
+	 * <br>Executor is chosen by config: {@link easydroid.gf.key.AsyncActionExecutors},
+	 * {@link easydroid.gf.key.AsyncExecutor} or the engine's shared pool 
+	 * (size is {@link easydroid.gf.key.AsyncPoolSize}).
+	 * <p>Example:
+	 * <pre>
+	 * Engine engine = new Engine();
+	 * engine.putHandler(SomeActonHandler.class);
+	 * 
+	 * ActionFuture&lt;String&gt; future = engine.invokeAsync(new SomeAction("some data"));
+	 * ...
+	 * String result = future.getOutput(); //exceptions as in engine.invoke(action)
+	 * </pre>
+	 * 
+	 * @see ActionFuture
+	 * @see #invoke(Action)
+	 */
+	@Override
+	public <I, O> ActionFuture<O> invokeAsync(Action<I, O> action) throws InvocationException {
+		return actions.invokeAsync(action);
+	}
+	
+	/**
+	 * This method is {@link Engine#invokeAsync(Action)} analog with the caller's executor.
+	 */
+	@Override
+	public <I, O> ActionFuture<O> invokeAsync(Action<I, O> action, Executor executor) throws InvocationException {
+		return actions.invokeAsync(action, executor);
+	}
+	
+	/**
+	 * Analog of {@link #invokeAll(Collection, InvokeAllOrder, InvokeAllErrors)}
+	 * with {@link InvokeAllOrder#ORDERED} and {@link InvokeAllErrors#FAIL_FAST}
+	 */
+	public List<Action<?,?>> invokeAll(Collection<? extends Action<?,?>> actions) 
+			throws InvocationException, ExceptionWrapper, RuntimeException {
+		return invokeAll(actions, InvokeAllOrder.ORDERED, InvokeAllErrors.FAIL_FAST);
+	}
+	
+	/**
+	 * Handle many {@link Action} objects with this <tt>Engine</tt>.
+	 * <br>Actions are grouped by type, handlers, interceptors and filters are resolved once per group.
+	 * Groups are invoked in parallel by the caller's thread and the engine's shared pool, 
+	 * max count of threads is {@link easydroid.gf.key.InvokeAllParallelism}.
+	 * <p>Example:
+	 * <pre>
+	 * List&lt;SyncItem&gt; list = new ArrayList&lt;SyncItem&gt;();
+	 * for(Item item : items){
+	 *   list.add(new SyncItem(item));
+	 * }
+	 * engine.invokeAll(list, InvokeAllOrder.ORDERED, InvokeAllErrors.COLLECT_ALL);
+	 * for(SyncItem action : list){
+	 *   System.out.println(action.getOutput());
+	 * }
+	 * </pre>
+	 * @return successfully invoked actions in the <tt>order</tt>
+	 * @throws InvokeAllException all exceptions in {@link InvokeAllErrors#COLLECT_ALL} mode
+	 * @throws InvocationException <tt>Engine</tt>'s processing exception in {@link InvokeAllErrors#FAIL_FAST} mode
+	 * @throws ExceptionWrapper wrapper of non-runtime <tt>Exception</tt> from handler's body in {@link InvokeAllErrors#FAIL_FAST} mode
+	 * @throws RuntimeException runtime <tt>Exception</tt> from handler's body in {@link InvokeAllErrors#FAIL_FAST} mode
+	 */
+	public List<Action<?,?>> invokeAll(Collection<? extends Action<?,?>> actions, InvokeAllOrder order, InvokeAllErrors errors) 
+			throws InvocationException, InvokeAllException, ExceptionWrapper, RuntimeException {
+		return this.actions.invokeAll(actions, order, errors);
+	}
+	
+	/**
+	 * Recent traces of sampled invocations, newest first.
+	 * <br>Empty if {@link easydroid.gf.key.TraceSampling} is not set.
+	 * @see TraceSampler
+	 */
+	public List<Trace> getSampledTraces(){
+		TraceSampler sampler = traceSampling.get();
+		if(sampler == null){
+			return new ArrayList<Trace>();
+		}
+		return sampler.getBuffer().getRecent();
+	}
+	
+	/**
+	 * Remove all saved traces of sampled invocations
+	 */
+	public void clearSampledTraces(){
+		TraceSampler sampler = traceSampling.get();
+		if(sampler != null){
+			sampler.getBuffer().clear();
+		}
+	}
+	
+	/**
+	 * Snapshot of invocation metrics by action, filter, interceptor and handler types.
+	 * <br>Metrics are collected if {@link easydroid.gf.key.CollectMetrics} is true.
+	 * @see MetricsSnapshot#toText()
+	 * @see MetricsSnapshot#toJson()
+	 */
+	public MetricsSnapshot getMetrics(){
+		return actions.metrics.snapshot();
+	}
+	
+	/**
+	 * Reset counters and histograms of all metrics
+	 */
+	public void resetMetrics(){
+		actions.metrics.reset();
+	}
+	
 	/**
 	 * Put the <tt>Handler</tt> class into this <tt>Engine</tt>.
 	 */
@@ -266,6 +391,53 @@ public class Engine implements ActionService, DeployService, ConfigService, Cont
 	}
 	
 	
+	/**
+	 * Put all handlers, interceptors, filters of compile-time registry into this <tt>Engine</tt>.
+	 * <br>No package scanning and no loading of classes except registered ones.
+	 * @see #loadRegistry()
+	 */
+	@Override
+	public void putRegistry(HandlerRegistry registry)
+			throws NoMappingAnnotationException, NotOneHandlerException {
+		deploy.putRegistry(registry);
+	}
+	
+	/**
+	 * Load registry generated by <tt>easydroid.gf.apt.RegistryProcessor</tt> 
+	 * with default class name {@link HandlerRegistry#DEFAULT_CLASS_NAME}.
+	 * <p>Example:
+	 * <pre>
+	 * Engine engine = new Engine();
+	 * if( ! engine.loadRegistry()){
+	 *   engine.scanAndPut("some.package");
+	 * }
+	 * </pre>
+	 * @return false if there is no generated registry in classpath
+	 */
+	public boolean loadRegistry()
+			throws NoMappingAnnotationException, NotOneHandlerException {
+		return loadRegistry(HandlerRegistry.DEFAULT_CLASS_NAME);
+	}
+	
+	/**
+	 * Load registry generated with processor option <tt>-Agf.registry=className</tt>
+	 * @return false if there is no such class in classpath
+	 * @see #loadRegistry()
+	 */
+	public boolean loadRegistry(String className)
+			throws NoMappingAnnotationException, NotOneHandlerException {
+		Class<?> type;
+		try {
+			type = Class.forName(className);
+		}catch (ClassNotFoundException e) {
+			return false;
+		}
+		HandlerRegistry registry = CoreUtil.createInstance(type);
+		putRegistry(registry);
+		return true;
+	}
+	
+	
 	/**
 	 * Analog of multi call of {@link #scanAndPut(String)}.
 	 * For example for JavaBean logic.
@@ -322,6 +494,7 @@ public class Engine implements ActionService, DeployService, ConfigService, Cont
 	@Override
 	public <T> void setConfig(Class<? extends ConfigKey<T>> keyType, T value) throws EmptyClassException {
 		config.setConfig(keyType, value);
+		resourse.clearInvocationPlans();
 	}
 	
 	/**
@@ -379,6 +552,22 @@ public class Engine implements ActionService, DeployService, ConfigService, Cont
 		return config.isTrueConfig(key);
 	}
 	
+	/**
+	 * Get accessor of the key for frequent reads.
+	 * <br>Value is cached in the handle until the next config change, so reads have no locks and allocations.
+	 * <br>Example:
+	 * <pre>
+	 * ConfigHandle&lt;Integer&gt; timeout = engine.handle(SomeTimeoutKey.class);
+	 * ...
+	 * int val = timeout.get();
+	 * </pre>
+	 * @see ConfigHandle
+	 */
+	@Override
+	public <T> ConfigHandle<T> handle(Class<? extends ConfigKey<T>> keyType) throws EmptyClassException {
+		return config.handle(keyType);
+	}
+	
 	/**
 	 * Parse config values from Properties. Key must be a config key's <tt>Class</tt> string.
 	 * <br>For example:
@@ -409,6 +598,7 @@ public class Engine implements ActionService, DeployService, ConfigService, Cont
 	@Override
 	public void setConfigValues(Properties props) throws ParsePropertiesException {
 		config.setConfigValues(props);
+		resourse.clearInvocationPlans();
 	}
 	
 	/**
@@ -0,0 +1,112 @@
+/*
+ * Copyright 2012 Evgeny Dolganov (evgenij.dolganov@gmail.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package easydroid.gf.core.action;
+
+import java.util.ArrayList;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+
+import easydroid.core.exception.ExceptionWrapper;
+import easydroid.gf.Action;
+import easydroid.gf.core.util.CoreUtil;
+import easydroid.gf.exception.invoke.InvocationException;
+import easydroid.gf.service.ActionFuture;
+import easydroid.gf.service.ActionService;
+import easydroid.util.log.LogFactory;
+import easydroid.util.log.Logger;
+
+public class ActionFutureImpl<O> extends FutureTask<O> implements ActionFuture<O> {
+	
+	private static Logger log = LogFactory.getLog(ActionFutureImpl.class);
+	
+	private final Action<?, O> action;
+	
+	//guarded by this, null after done
+	private ArrayList<Runnable> listeners = new ArrayList<Runnable>();
+
+	public ActionFutureImpl(final ActionService actions, final Action<?, O> action) {
+		super(new Callable<O>() {
+			
+			@Override
+			public O call() throws Exception {
+				return actions.invokeUnwrap(action);
+			}
+		});
+		this.action = action;
+	}
+	
+	
+	@Override
+	public O getOutput() throws InvocationException, ExceptionWrapper, RuntimeException {
+		try {
+			return getOutputUnwrap();
+		}catch (Exception e) {
+			throw CoreUtil.convertException(e, "can't invoke "+action);
+		}
+	}
+
+	@Override
+	public O getOutputUnwrap() throws InvocationException, Exception {
+		try {
+			return get();
+		}catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if(cause instanceof Exception){
+				throw (Exception)cause;
+			}
+			if(cause instanceof Error){
+				throw (Error)cause;
+			}
+			throw e;
+		}catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw e;
+		}
+	}
+
+	@Override
+	public void addListener(Runnable listener) {
+		synchronized (this) {
+			if(listeners != null){
+				listeners.add(listener);
+				return;
+			}
+		}
+		callListener(listener);
+	}
+	
+	@Override
+	protected void done() {
+		ArrayList<Runnable> list;
+		synchronized (this) {
+			list = listeners;
+			listeners = null;
+		}
+		for(int i = 0; i < list.size(); i++){
+			callListener(list.get(i));
+		}
+	}
+	
+	private void callListener(Runnable listener){
+		try {
+			listener.run();
+		}catch (Throwable t) {
+			log.error("can't call listener "+listener+" for "+action, t);
+		}
+	}
+
+}
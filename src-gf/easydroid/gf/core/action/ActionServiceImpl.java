@@ -15,13 +15,24 @@
  */
 package easydroid.gf.core.action;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.Executor;
+
 import easydroid.core.exception.ExceptionWrapper;
 import easydroid.gf.Action;
+import easydroid.gf.config.ConfigHandle;
 import easydroid.gf.core.context.StaticContext;
 import easydroid.gf.core.deploy.ResourseService;
 import easydroid.gf.core.util.CoreUtil;
 import easydroid.gf.exception.invoke.InvocationException;
+import easydroid.gf.exception.invoke.InvokeAllException;
 import easydroid.gf.exception.invoke.NullActionException;
+import easydroid.gf.extra.invocation.InvokeAllErrors;
+import easydroid.gf.extra.invocation.InvokeAllOrder;
+import easydroid.gf.extra.metrics.MetricsRegistry;
+import easydroid.gf.key.InvokeAllParallelism;
+import easydroid.gf.service.ActionFuture;
 import easydroid.gf.service.ActionService;
 import easydroid.gf.service.ConfigService;
 import easydroid.util.Util;
@@ -33,12 +44,21 @@ public class ActionServiceImpl implements ActionService {
 	public ConfigService config;
 	public StaticContext staticContext;
 	public Object owner;
+	public InvocationObjects objects = new InvocationObjects();
+	public MetricsRegistry metrics = new MetricsRegistry();
+	
+	private InvocationBlock invocationBlock;
+	private ConfigHandle<Integer> invokeAllParallelism;
+	AsyncExecutors executors;
 	
 	public ActionServiceImpl(Object owner, ConfigService config, ResourseService resourseService, StaticContext staticContext) {
 		this.owner = owner;
 		this.resourse = resourseService;
 		this.config = config;
 		this.staticContext = staticContext;
+		this.executors = new AsyncExecutors(config);
+		this.invocationBlock = new InvocationBlock(this);
+		this.invokeAllParallelism = config.handle(InvokeAllParallelism.class);
 	}
 	
 
@@ -63,11 +83,52 @@ public class ActionServiceImpl implements ActionService {
 			throw new NullActionException();
 		}
 		
-		InvocationBlock block = new InvocationBlock(this, action);
-		block.invoke();
+		invocationBlock.invoke(action);
 		
 		Object out = action.getOutput();
 		return (O)out;
 	}
+	
+	
+	@Override
+	public <I, O> ActionFuture<O> invokeAsync(Action<I, O> action) throws InvocationException {
+		return invokeAsync(action, null);
+	}
+	
+	
+	@Override
+	public <I, O> ActionFuture<O> invokeAsync(Action<I, O> action, Executor executor) throws InvocationException {
+		
+		if(Util.isEmpty(action)){
+			throw new NullActionException();
+		}
+		
+		if(executor == null){
+			executor = executors.getExecutor(action);
+		}
+		
+		ActionFutureImpl<O> future = new ActionFutureImpl<O>(this, action);
+		executor.execute(future);
+		return future;
+	}
+	
+	
+	public List<Action<?,?>> invokeAll(Collection<? extends Action<?,?>> actions, InvokeAllOrder order, InvokeAllErrors errors) 
+			throws InvocationException, InvokeAllException, ExceptionWrapper, RuntimeException {
+		
+		Util.checkArgumentForEmpty(actions, "actions is null");
+		Util.checkArgumentForEmpty(order, "order is null");
+		Util.checkArgumentForEmpty(errors, "errors is null");
+		
+		try {
+			
+			InvokeAllBlock block = new InvokeAllBlock(invocationBlock, actions, order, errors);
+			Integer parallelism = invokeAllParallelism.get();
+			return block.invoke(executors.getSharedPool(), parallelism == null? 1 : parallelism);
+			
+		} catch (Exception e) {
+			throw CoreUtil.convertException(e, "can't invoke all "+actions.size()+" action(s)");
+		}
+	}
 
 }
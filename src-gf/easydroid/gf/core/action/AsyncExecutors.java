@@ -0,0 +1,115 @@
+/*
+ * Copyright 2012 Evgeny Dolganov (evgenij.dolganov@gmail.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package easydroid.gf.core.action;
+
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import easydroid.gf.Action;
+import easydroid.gf.config.ConfigHandle;
+import easydroid.gf.key.AsyncActionExecutors;
+import easydroid.gf.key.AsyncExecutor;
+import easydroid.gf.key.AsyncPoolSize;
+import easydroid.gf.service.ConfigService;
+
+/**
+ * Choose executor for async invocations by config:
+ * {@link AsyncActionExecutors}, {@link AsyncExecutor} or the shared pool.
+ */
+public class AsyncExecutors {
+	
+	private static final long KEEP_ALIVE_SECONDS = 30;
+	private static final AtomicInteger POOLS_COUNT = new AtomicInteger();
+	
+	private ConfigHandle<Map<Class<?>, Executor>> actionExecutors;
+	private ConfigHandle<Executor> executor;
+	private ConfigHandle<Integer> poolSize;
+	private volatile ThreadPoolExecutor sharedPool;
+	
+	public AsyncExecutors(ConfigService config) {
+		actionExecutors = config.handle(AsyncActionExecutors.class);
+		executor = config.handle(AsyncExecutor.class);
+		poolSize = config.handle(AsyncPoolSize.class);
+	}
+	
+	public Executor getExecutor(Action<?, ?> action){
+		
+		Map<Class<?>, Executor> byType = actionExecutors.get();
+		if(byType != null){
+			Executor out = byType.get(action.getClass());
+			if(out != null){
+				return out;
+			}
+		}
+		
+		Executor out = executor.get();
+		if(out != null){
+			return out;
+		}
+		
+		return getSharedPool();
+	}
+	
+	/**
+	 * Engine's pool with {@link AsyncPoolSize} daemon threads.
+	 * <br>Idle threads are stopped so the pool doesn't need shutdown.
+	 */
+	public ThreadPoolExecutor getSharedPool(){
+		ThreadPoolExecutor pool = sharedPool;
+		if(pool == null){
+			synchronized (this) {
+				pool = sharedPool;
+				if(pool == null){
+					pool = createPool(poolSize.get());
+					sharedPool = pool;
+				}
+			}
+		}
+		return pool;
+	}
+
+	private static ThreadPoolExecutor createPool(Integer size) {
+		
+		int threads = size == null || size < 1? 1 : size;
+		final String prefix = "gf-async-"+POOLS_COUNT.incrementAndGet()+"-";
+		
+		ThreadPoolExecutor pool = new ThreadPoolExecutor(
+				threads, 
+				threads, 
+				KEEP_ALIVE_SECONDS, 
+				TimeUnit.SECONDS, 
+				new LinkedBlockingQueue<Runnable>(), 
+				new ThreadFactory() {
+					
+					AtomicInteger count = new AtomicInteger();
+					
+					@Override
+					public Thread newThread(Runnable r) {
+						Thread thread = new Thread(r, prefix+count.incrementAndGet());
+						thread.setDaemon(true);
+						return thread;
+					}
+				});
+		pool.allowCoreThreadTimeOut(true);
+		return pool;
+	}
+
+}
@@ -0,0 +1,69 @@
+/*
+ * Copyright 2012 Evgeny Dolganov (evgenij.dolganov@gmail.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package easydroid.gf.core.action;
+
+import java.util.List;
+
+import easydroid.gf.Action;
+import easydroid.gf.annotation.Shared;
+import easydroid.gf.service.InvocationContextService;
+import easydroid.gf.service.InvocationService;
+import easydroid.util.Util;
+
+/**
+ * Invocation services for {@link Shared} objects.
+ * <br>Calls are delegated to the current invocation context of the thread.
+ */
+class CurrentInvocation implements InvocationService, InvocationContextService {
+	
+	static final CurrentInvocation INSTANCE = new CurrentInvocation();
+	
+	private static final ThreadLocal<InvocationContext> CURRENT = new ThreadLocal<InvocationContext>();
+	
+	static InvocationContext get(){
+		return CURRENT.get();
+	}
+	
+	static void set(InvocationContext c){
+		CURRENT.set(c);
+	}
+	
+	private CurrentInvocation() {
+		super();
+	}
+
+	@Override
+	public <I, O> O subInvoke(Action<I, O> action) throws Exception {
+		return getContext().subInvoke(action);
+	}
+
+	@Override
+	public void subInvokeAll(List<? extends Action<?, ?>> actions) throws Exception {
+		getContext().subInvokeAll(actions);
+	}
+
+	@Override
+	public void addToInvocationContext(Object ob) {
+		getContext().addToInvocationContext(ob);
+	}
+	
+	private InvocationContext getContext(){
+		InvocationContext c = CURRENT.get();
+		Util.checkState(c != null, "no current invocation in thread "+Thread.currentThread());
+		return c;
+	}
+
+}
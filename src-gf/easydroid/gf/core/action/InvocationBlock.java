@@ -16,98 +16,402 @@
 package easydroid.gf.core.action;
 
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import easydroid.gf.Action;
-import easydroid.gf.core.action.filter.FiltersBlock;
-import easydroid.gf.core.action.interceptor.InterceptorsBlock;
+import easydroid.gf.config.ConfigHandle;
 import easydroid.gf.core.action.trace.Body;
+import easydroid.gf.core.action.trace.InvocationRecorder;
 import easydroid.gf.core.action.trace.TraceWrapper;
-import easydroid.gf.core.context.ContextRepository;
+import easydroid.gf.core.deploy.InvocationPlan;
+import easydroid.gf.extra.trace.TraceLevel;
 import easydroid.gf.exception.invoke.InvokeDepthMaxSizeException;
-import easydroid.gf.key.InvokeDepthMaxSize;
+import easydroid.gf.extra.recorder.FlightRecorder;
+import easydroid.gf.extra.trace.SlowInvocationDetector;
+import easydroid.gf.extra.trace.TraceSampler;
+import easydroid.gf.key.CollectMetrics;
+import easydroid.gf.key.FlightRecording;
+import easydroid.gf.key.SlowInvocations;
 import easydroid.gf.key.TraceHandlers;
+import easydroid.gf.key.TraceSampling;
+import easydroid.util.ExceptionUtil;
+import easydroid.util.log.LogFactory;
+import easydroid.util.log.Logger;
 
 
 public class InvocationBlock {
 	
-	private boolean isTraceHandlers;
-	private int depthMaxSize;
+	private static final Logger log = LogFactory.getLog(InvocationBlock.class);
 	
 	ActionServiceImpl actionService;
-	Action<?,?> action;
+	private ConfigHandle<Boolean> traceHandlers;
+	private ConfigHandle<TraceSampler> traceSampling;
+	private ConfigHandle<Boolean> collectMetrics;
+	private ConfigHandle<SlowInvocationDetector> slowInvocations;
+	private ConfigHandle<FlightRecorder> flightRecording;
 	
 	
-	public InvocationBlock(ActionServiceImpl actionService, Action<?,?> action){
+	public InvocationBlock(ActionServiceImpl actionService){
 		this.actionService = actionService;
-		this.action = action;
-		
-		isTraceHandlers = actionService.config.isTrueConfig(new TraceHandlers());
-		depthMaxSize = actionService.config.getConfig(new InvokeDepthMaxSize());
+		this.traceHandlers = actionService.config.handle(TraceHandlers.class);
+		this.traceSampling = actionService.config.handle(TraceSampling.class);
+		this.collectMetrics = actionService.config.handle(CollectMetrics.class);
+		this.slowInvocations = actionService.config.handle(SlowInvocations.class);
+		this.flightRecording = actionService.config.handle(FlightRecording.class);
+	}
+	
+	public void invoke(Action<?,?> action) throws Exception {
+		invoke(action, actionService.resourse.getInvocationPlan(action));
 	}
 	
-	public void invoke() throws Exception {
+	/**
+	 * Invoke action with already resolved plan
+	 */
+	void invoke(Action<?,?> action, InvocationPlan plan) throws Exception {
 		
-		final InvocationContext c = createContext(action, null, true);
+		checkDepth(plan, null);
+		boolean isTraceHandlers = traceHandlers.isTrue();
+		TraceSampler sampler = isTraceHandlers? null : traceSampling.get();
+		if(sampler != null && ! sampler.isSampled(action)){
+			sampler = null;
+		}
+		SlowInvocationDetector detector = slowInvocations.get();
 		
-		c.traceWrapper.wrapInvocationBlock(actionService.owner, action, new Body() {
+		ThreadContexts contexts = ThreadContexts.get();
+		InvocationContext prev = CurrentInvocation.get();
+		InvocationContext c = contexts.acquire();
+		try {
+			
+			initContext(c, plan, action, null, true);
+			c.traceWrapper = TraceWrapper.create(isTraceHandlers || sampler != null, sampler);
 			
-			@Override
-			public void invocation() throws Throwable {
-				FiltersBlock block = new FiltersBlock(c);
-				block.invoke();
+			InvocationRecorder recorder = detector == null? null : c.getOwnRecorder();
+			c.recorder = recorder;
+			if(recorder != null){
+				recorder.start();
 			}
-		});
-
+			
+			c.enterActionProbe(false, false);
+			boolean ok = false;
+			try {
+				if( ! c.traceWrapper.isTracing()){
+					c.getFilterChain().invoke();
+				} else {
+					final InvocationContext context = c;
+					c.traceWrapper.wrapInvocationBlock(actionService.owner, action, new Body() {
+						
+						@Override
+						public void invocation() throws Throwable {
+							context.getFilterChain().invoke();
+						}
+					});
+				}
+				ok = true;
+			}catch (Throwable t) {
+				c.recordFlight(FlightRecorder.EXCEPTION, t.getClass(), false);
+				throw ExceptionUtil.getExceptionOrThrowError(t);
+			}finally {
+				c.exitProbe(ok);
+				if(recorder != null){
+					reportIfSlow(detector, recorder, action, ! ok);
+				}
+			}
+			
+		}finally {
+			c.releaseObjects();
+			contexts.release(c);
+			CurrentInvocation.set(prev);
+		}
 		
 	}
 	
+	private void reportIfSlow(SlowInvocationDetector detector, InvocationRecorder recorder, Action<?,?> action, boolean isError){
+		try {
+			long duration = recorder.stop(isError);
+			Class<?> actionType = action.getClass();
+			if(detector.isSlow(actionType, duration) && detector.tryAcquireReport(actionType)){
+				detector.report(action, recorder.buildTrace(actionService.owner, actionType));
+			}
+		}catch (RuntimeException e) {
+			log.error("can't report slow invocation of "+action, e);
+		}finally {
+			recorder.reset();
+		}
+	}
+	
 	
 	<I, O> O subInvoke(InvocationContext parent, Action<I, O> action) throws Exception {
+		return subInvoke(parent, action, false, null);
+	}
+	
+	/**
+	 * @param isParallel is it a branch of {@link #subInvokeAll(InvocationContext, List)}
+	 * @param parallelLevel trace level of parallel branch or null
+	 */
+	private <I, O> O subInvoke(InvocationContext parent, Action<I, O> action, boolean isParallel, TraceLevel parallelLevel) throws Exception {
 		
-		final InvocationContext c = createContext(action, parent, false);
+		InvocationPlan plan = getPlan(action, parent);
 		
-		c.traceWrapper.wrapSubHandlers(new Body() {
+		ThreadContexts contexts = ThreadContexts.get();
+		InvocationContext prev = CurrentInvocation.get();
+		InvocationContext c = contexts.acquire();
+		try {
+			
+			initContext(c, plan, action, parent, false);
 			
-			@Override
-			public void invocation() throws Throwable {
-				InterceptorsBlock block = new InterceptorsBlock(c);
-				block.invoke();
+			//recorder is used only in its thread
+			InvocationRecorder recorder = parent.recorder;
+			if(recorder != null && isParallel && ! recorder.isOwnerThread()){
+				recorder = null;
 			}
-		});
-
+			c.recorder = recorder;
+			
+			c.enterActionProbe(true, isParallel);
+			boolean ok = false;
+			try {
+				invokeInterceptors(c, parent, parallelLevel);
+				ok = true;
+			}finally {
+				c.exitProbe(ok);
+			}
+			
+		}finally {
+			c.releaseObjects();
+			contexts.release(c);
+			CurrentInvocation.set(prev);
+		}
 		
 		return (O) action.getOutput();
 	}
 	
-	@SuppressWarnings({ "rawtypes", "unchecked" })
-	private InvocationContext createContext(Action<?,?> action, InvocationContext parent, boolean initFilters){
+	private void invokeInterceptors(InvocationContext c, InvocationContext parent, TraceLevel parallelLevel) throws Exception {
+		
+		if(parallelLevel != null){
+			//branch can be in other thread
+			c.traceWrapper = TraceWrapper.create(true);
+			final InvocationContext context = c;
+			c.traceWrapper.wrapParallelLevel(parallelLevel, new Body() {
+				
+				@Override
+				public void invocation() throws Throwable {
+					context.getInterceptorChain().invoke();
+				}
+			});
+		}
+		else if( ! parent.traceWrapper.isTracing()){
+			c.traceWrapper = parent.traceWrapper;
+			c.getInterceptorChain().invoke();
+		} 
+		else {
+			c.traceWrapper = parent.traceWrapper;
+			final InvocationContext context = c;
+			c.traceWrapper.wrapSubHandlers(new Body() {
+				
+				@Override
+				public void invocation() throws Throwable {
+					context.getInterceptorChain().invoke();
+				}
+			});
+		}
+	}
+	
+	/**
+	 * Sub invoke actions in parallel: in executors and in the caller's thread.
+	 * <br>Each action has own child context with shared invocation context of the parent.
+	 * If branch's task is not started yet it is invoked by the caller's thread.
+	 * <br>Returns only after the end of all started branches (they use the parent's context),
+	 * interruption of the caller's thread is restored after waiting.
+	 * @throws Exception first exception or error in order of actions after the end of all branches
+	 */
+	void subInvokeAll(InvocationContext parent, List<? extends Action<?,?>> actions) throws Exception {
+		
+		int count = actions.size();
+		if(count == 0){
+			return;
+		}
+		if(count == 1){
+			subInvoke(parent, actions.get(0));
+			return;
+		}
+		
+		TraceLevel[] levels = parent.traceWrapper.isTracing()? parent.traceWrapper.createParallelLevels(count) : null;
+		
+		SubInvokeBranch[] branches = new SubInvokeBranch[count];
+		for(int i = 0; i < count; i++){
+			branches[i] = new SubInvokeBranch(parent, actions.get(i), levels == null? null : levels[i]);
+		}
+		for(int i = 1; i < count; i++){
+			try {
+				actionService.executors.getExecutor(branches[i].action).execute(branches[i].task);
+			}catch (RejectedExecutionException e) {
+				//bounded or shut down executor: this and next branches are invoked in current thread
+				break;
+			}
+		}
 		
-		//check depth size
+		//invoke all not started branches before waiting for others
+		Throwable[] errors = new Throwable[count];
+		boolean[] invokedHere = new boolean[count];
+		for(int i = 0; i < count; i++){
+			if(branches[i].start()){
+				errors[i] = branches[i].invokeInCurrentThread();
+				invokedHere[i] = true;
+			}
+		}
+		
+		Throwable first = null;
+		boolean interrupted = false;
+		for(int i = 0; i < count; i++){
+			Throwable ex;
+			if(invokedHere[i]){
+				ex = errors[i];
+			} else {
+				ex = branches[i].waitFor();
+				interrupted |= branches[i].interrupted;
+			}
+			if(first == null){
+				first = ex;
+			}
+		}
+		if(interrupted){
+			Thread.currentThread().interrupt();
+		}
+		
+		//branches of other threads are recorded only by their times
+		InvocationRecorder recorder = parent.recorder;
+		if(recorder != null){
+			for(int i = 0; i < count; i++){
+				SubInvokeBranch branch = branches[i];
+				if( ! invokedHere[i] && branch.endNanos != 0){
+					recorder.addParallelLevel(branch.startNanos, branch.endNanos, branch.failed);
+				}
+			}
+		}
+		
+		if(first instanceof Error){
+			throw (Error)first;
+		}
+		if(first != null){
+			throw (Exception)first;
+		}
+	}
+	
+	private InvocationPlan getPlan(Action<?,?> action, InvocationContext parent){
+		
+		InvocationPlan plan = actionService.resourse.getInvocationPlan(action);
+		checkDepth(plan, parent);
+		return plan;
+	}
+	
+	private void checkDepth(InvocationPlan plan, InvocationContext parent){
 		int depth = parent == null? 1 : parent.depth+1;
-		if(depth > depthMaxSize){
-			throw new InvokeDepthMaxSizeException(depthMaxSize);
+		if(depth > plan.depthMaxSize){
+			throw new InvokeDepthMaxSizeException(plan.depthMaxSize);
 		}
+	}
+	
+	@SuppressWarnings({ "rawtypes", "unchecked" })
+	private void initContext(InvocationContext c, InvocationPlan plan, Action<?,?> action, InvocationContext parent, boolean initFilters) throws Exception {
 		
-		//create new context
-		InvocationContext c = new InvocationContext();
+		//init context
 		c.owner = this;
 		c.parent = parent;
-		c.depth = depth;
+		c.depth = parent == null? 1 : parent.depth+1;
 		c.actions = actionService;
 		c.action = action;
-		c.traceWrapper = new TraceWrapper(isTraceHandlers);
 		c.config = c.actions.config;
-		c.staticContextObjects = c.actions.staticContext.getStaticContextObjects();
-		c.invocationContext = parent == null? new ContextRepository() : parent.invocationContext;
+		c.staticContext = c.actions.staticContext.getStaticContextRepository();
+		c.invocationContext = parent == null? c.getOwnInvocationContext() : parent.invocationContext;
+		c.initializers = c.actions.resourse.getInitializers();
+		c.metrics = collectMetrics.isTrue()? actionService.metrics : null;
+		c.flightRecorder = flightRecording.get();
 		
 		if(initFilters){
-			c.filters = c.actions.resourse.getFilters();
+			createObjects(plan.filterTypes, (List)c.filters, c);
+		}
+		createObjects(plan.interceptorTypes, (List)c.interceptors, c);
+		c.handler = c.actions.objects.get(plan.handlerType, c);
+	}
+	
+	private class SubInvokeBranch implements Callable<Object> {
+		
+		final InvocationContext parent;
+		final Action<?,?> action;
+		final TraceLevel level;
+		final FutureTask<Object> task;
+		//branch is invoked by the thread which starts it first
+		final AtomicBoolean started = new AtomicBoolean();
+		//times of invocation in executor's thread
+		long startNanos;
+		long endNanos;
+		boolean failed;
+		//caller's thread was interrupted in waitFor
+		boolean interrupted;
+		
+		SubInvokeBranch(InvocationContext parent, Action<?,?> action, TraceLevel level) {
+			this.parent = parent;
+			this.action = action;
+			this.level = level;
+			this.task = new FutureTask<Object>(this);
+		}
+
+		boolean start(){
+			return started.compareAndSet(false, true);
+		}
+
+		@Override
+		public Object call() throws Exception {
+			if( ! start()){
+				return null;
+			}
+			startNanos = System.nanoTime();
+			failed = true;
+			try {
+				subInvoke(parent, action, true, level);
+				failed = false;
+			}finally {
+				endNanos = System.nanoTime();
+			}
+			return null;
 		}
-		c.interceptors = (List)c.actions.resourse.getInterceptors(c.action);
-		c.handler = c.actions.resourse.getHandler(c.action);
-		c.initializers = c.actions.resourse.getInitializers();
 		
-		return c;
+		Throwable invokeInCurrentThread(){
+			try {
+				subInvoke(parent, action, true, level);
+				return null;
+			}catch (Throwable t) {
+				return t;
+			}
+		}
+		
+		/**
+		 * Uninterruptible waiting for the end of the task
+		 */
+		Throwable waitFor() {
+			while(true){
+				try {
+					task.get();
+					return null;
+				}catch (InterruptedException e) {
+					interrupted = true;
+				}catch (ExecutionException e) {
+					return e.getCause();
+				}
+			}
+		}
+		
+	}
+	
+	private void createObjects(List<Class<?>> types, List<Object> out, InvocationContext c) throws Exception {
+		InvocationObjects objects = c.actions.objects;
+		for(int i = 0; i < types.size(); i++){
+			Object ob = objects.get(types.get(i), c);
+			out.add(ob);
+		}
 	}
 
 }
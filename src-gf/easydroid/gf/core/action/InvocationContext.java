@@ -17,7 +17,6 @@ package easydroid.gf.core.action;
 
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.Collections;
 import java.util.List;
 
 
@@ -28,12 +27,20 @@ import easydroid.gf.Handler;
 import easydroid.gf.Interceptor;
 import easydroid.gf.InvocationObject;
 import easydroid.gf.MappingObject;
+import easydroid.gf.core.action.filter.FilterChainImpl;
+import easydroid.gf.core.action.handler.HandlerBlock;
+import easydroid.gf.core.action.interceptor.InterceptorChainImpl;
 import easydroid.gf.core.action.reader.InvocationReaderImpl;
+import easydroid.gf.core.action.trace.InvocationRecorder;
 import easydroid.gf.core.action.trace.TraceWrapper;
 import easydroid.gf.core.context.ContextRepository;
 import easydroid.gf.extra.invocation.InvocationObjectInitializer;
 import easydroid.gf.extra.invocation.reader.HasInvocationReader;
 import easydroid.gf.extra.invocation.reader.InvocationReader;
+import easydroid.gf.extra.metrics.Metric;
+import easydroid.gf.extra.recorder.FlightRecorder;
+import easydroid.gf.extra.metrics.MetricKind;
+import easydroid.gf.extra.metrics.MetricsRegistry;
 import easydroid.gf.extra.util.ReflectionsUtil;
 import easydroid.gf.service.ConfigService;
 import easydroid.gf.service.InvocationContextService;
@@ -50,37 +57,233 @@ public class InvocationContext implements InvocationService, InvocationContextSe
 	public ActionServiceImpl actions; 
 	public ConfigService config;
 	public Action<?,?> action;
-	public List<Filter> filters = Collections.emptyList();
-	public List<Interceptor> interceptors = Collections.emptyList();
+	public List<Filter> filters = new ArrayList<Filter>();
+	public List<Interceptor> interceptors = new ArrayList<Interceptor>();
 	public Handler handler;
-	public Collection<Object> staticContextObjects;
+	public ContextRepository staticContext;
 	public TraceWrapper traceWrapper;
+	//null if metrics are disabled
+	public MetricsRegistry metrics;
+	//null if slow invocations are not detected
+	public InvocationRecorder recorder;
+	//null if flight recording is disabled
+	public FlightRecorder flightRecorder;
 	public List<InvocationObjectInitializer> initializers;
 	
+	//reusable parts, contexts are recycled by ThreadContexts
+	private ContextRepository ownInvocationContext;
+	private FilterChainImpl filterChain;
+	private InterceptorChainImpl interceptorChain;
+	private HandlerBlock handlerBlock;
+	private InvocationRecorder ownRecorder;
+	//entered probes of the action, filters, interceptors and handler (LIFO)
+	private Probe[] probes = new Probe[0];
+	private int probesCount;
+	
+	
+	public FilterChainImpl getFilterChain(){
+		if(filterChain == null){
+			filterChain = new FilterChainImpl(this);
+		}
+		return filterChain;
+	}
+	
+	public InterceptorChainImpl getInterceptorChain(){
+		if(interceptorChain == null){
+			interceptorChain = new InterceptorChainImpl(this);
+		}
+		return interceptorChain;
+	}
+	
+	public HandlerBlock getHandlerBlock(){
+		if(handlerBlock == null){
+			handlerBlock = new HandlerBlock(this);
+		}
+		return handlerBlock;
+	}
+	
+	/**
+	 * @return metric of the type or null if metrics are disabled
+	 */
+	public Metric getMetric(MetricKind kind, Class<?> type){
+		return metrics == null? null : metrics.get(kind, type);
+	}
+	
+	/**
+	 * Enter probes of filter, interceptor or handler: metric, item of recorder and flight event.
+	 * <br>Must be closed by {@link #exitProbe(boolean)} in finally block.
+	 */
+	public void enterItemProbe(MetricKind kind, Object item){
+		Probe probe = pushProbe(kind, item.getClass(), FlightRecorder.EXIT);
+		probe.recorded = recorder == null? -1 : recorder.enterItem(item);
+		recordFlight(FlightRecorder.ENTER, probe.type, true);
+	}
+	
+	/**
+	 * Enter probes of the action: metric, level of recorder (for sub action) and flight event.
+	 * <br>Must be closed by {@link #exitProbe(boolean)} in finally block.
+	 * @param isSubInvoke is it sub action (root action's recorder is started separately)
+	 * @param isParallel is it a branch of parallel sub invoke
+	 */
+	void enterActionProbe(boolean isSubInvoke, boolean isParallel){
+		if( ! isSubInvoke){
+			Probe probe = pushProbe(MetricKind.ACTION, action.getClass(), FlightRecorder.INVOKE_END);
+			probe.recorded = -1;
+			recordFlight(FlightRecorder.INVOKE_START, probe.type, true);
+		} else {
+			Probe probe = pushProbe(MetricKind.ACTION, action.getClass(), FlightRecorder.SUB_INVOKE_END);
+			probe.recorded = recorder == null? -1 : recorder.enterLevel(isParallel);
+			recordFlight(FlightRecorder.SUB_INVOKE_START, probe.type, true);
+		}
+	}
+	
+	/**
+	 * Exit the last entered probe
+	 */
+	public void exitProbe(boolean ok){
+		Probe probe = probes[--probesCount];
+		if(probe.recorded != -1){
+			recorder.exit(probe.recorded, ! ok);
+		}
+		recordFlight(probe.exitType, probe.type, ok);
+		if(probe.metric != null){
+			probe.metric.stop(probe.start, ! ok);
+		}
+		probe.metric = null;
+		probe.type = null;
+	}
+	
+	void recordFlight(byte type, Class<?> clazz, boolean ok){
+		if(flightRecorder != null){
+			flightRecorder.record(type, clazz, ok? FlightRecorder.STATUS_OK : FlightRecorder.STATUS_ERROR);
+		}
+	}
+	
+	private Probe pushProbe(MetricKind kind, Class<?> type, byte exitType){
+		if(probesCount == probes.length){
+			Probe[] grown = new Probe[probes.length + 8];
+			System.arraycopy(probes, 0, grown, 0, probes.length);
+			for(int i = probes.length; i < grown.length; i++){
+				grown[i] = new Probe();
+			}
+			probes = grown;
+		}
+		Probe probe = probes[probesCount++];
+		probe.type = type;
+		probe.exitType = exitType;
+		probe.metric = getMetric(kind, type);
+		probe.start = probe.metric == null? 0 : probe.metric.start();
+		return probe;
+	}
+	
+	private static class Probe {
+		Class<?> type;
+		byte exitType;
+		Metric metric;
+		long start;
+		int recorded;
+	}
+	
+	InvocationRecorder getOwnRecorder(){
+		if(ownRecorder == null){
+			ownRecorder = new InvocationRecorder();
+		}
+		return ownRecorder;
+	}
+	
+	ContextRepository getOwnInvocationContext(){
+		if(ownInvocationContext == null){
+			ownInvocationContext = new ContextRepository(staticContext);
+		} else {
+			ownInvocationContext.reset(staticContext);
+		}
+		return ownInvocationContext;
+	}
+	
 	
 	public void initMappingObject(MappingObject ob) throws Exception{
+		if(actions.objects.isShared(ob)){
+			CurrentInvocation.set(this);
+			return;
+		}
 		init(ob);
 		ob.setInvocation(this);
 	}
 
 	public void initFilter(Filter ob) throws Exception{
+		if(actions.objects.isShared(ob)){
+			CurrentInvocation.set(this);
+			return;
+		}
 		init(ob);
 		ob.setInvocationContext(this);
 	}
+	
+	void initSharedObject(InvocationObject ob) throws Exception {
+		
+		//only engine's context for shared objects
+		init(ob, staticContext);
+		
+		if(ob instanceof MappingObject){
+			((MappingObject)ob).setInvocation(CurrentInvocation.INSTANCE);
+		}
+		if(ob instanceof Filter){
+			((Filter)ob).setInvocationContext(CurrentInvocation.INSTANCE);
+		}
+	}
+	
+	void releaseObjects(){
+		InvocationObjects objects = actions.objects;
+		for(int i = 0; i < filters.size(); i++){
+			objects.release(filters.get(i));
+		}
+		for(int i = 0; i < interceptors.size(); i++){
+			objects.release(interceptors.get(i));
+		}
+		objects.release(handler);
+	}
+	
+	/**
+	 * Drop all references of finished invocation
+	 */
+	void clear(){
+		owner = null;
+		parent = null;
+		depth = 0;
+		invocationContext = null;
+		actions = null;
+		config = null;
+		action = null;
+		filters.clear();
+		interceptors.clear();
+		handler = null;
+		staticContext = null;
+		traceWrapper = null;
+		metrics = null;
+		recorder = null;
+		flightRecorder = null;
+		initializers = null;
+		probesCount = 0;
+		if(ownInvocationContext != null){
+			ownInvocationContext.reset(null);
+		}
+	}
 
 	private void init(InvocationObject obj) throws Exception {
+		init(obj, invocationContext);
+	}
+	
+	private void init(InvocationObject obj, ContextRepository context) throws Exception {
 		
-		Collection<Object> invocationContextObjects = invocationContext.getAll();
-		ArrayList<Object> list = new ArrayList<Object>();
-		list.addAll(invocationContextObjects);
-		list.addAll(staticContextObjects);
+		//list of objects only for initializers
+		Collection<Object> list = initializers.isEmpty()? null : context.getAll();
 		
-		for(InvocationObjectInitializer initializer : initializers){
-			initializer.beforeObjectInited(obj, list);
+		for(int i = 0; i < initializers.size(); i++){
+			initializers.get(i).beforeObjectInited(obj, list);
 		}
 		
 		//context
-		inject(obj, list);
+		inject(obj, context);
 		
 		//config
 		obj.setConfigService(config);
@@ -89,8 +292,8 @@ public class InvocationContext implements InvocationService, InvocationContextSe
 		setInvocationReader(obj);
 		
 		
-		for(InvocationObjectInitializer initializer : initializers){
-			initializer.afterObjectInited(obj, list);
+		for(int i = 0; i < initializers.size(); i++){
+			initializers.get(i).afterObjectInited(obj, list);
 		}
 		
 	}
@@ -103,8 +306,8 @@ public class InvocationContext implements InvocationService, InvocationContextSe
 	}
 
 	
-	private void inject(Object obj, Collection<Object> collection){
-		ReflectionsUtil.injectDataFromContext(obj, collection, Inject.class);
+	private void inject(Object obj, ContextRepository context){
+		ReflectionsUtil.injectDataFromContext(obj, context, Inject.class);
 	}
 	
 
@@ -112,6 +315,11 @@ public class InvocationContext implements InvocationService, InvocationContextSe
 	public <I, O> O subInvoke(Action<I, O> subAction) throws Exception {		
 		return (O)owner.subInvoke(this, subAction);
 	}
+	
+	@Override
+	public void subInvokeAll(List<? extends Action<?, ?>> subActions) throws Exception {
+		owner.subInvokeAll(this, subActions);
+	}
 
 	@Override
 	public void addToInvocationContext(Object ob) {
@@ -0,0 +1,127 @@
+/*
+ * Copyright 2012 Evgeny Dolganov (evgenij.dolganov@gmail.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package easydroid.gf.core.action;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+
+import easydroid.gf.InvocationObject;
+import easydroid.gf.annotation.Pooled;
+import easydroid.gf.core.deploy.ObjectScope;
+import easydroid.gf.core.util.CoreUtil;
+import easydroid.gf.extra.invocation.Resettable;
+import easydroid.util.log.LogFactory;
+import easydroid.util.log.Logger;
+
+/**
+ * Creates <tt>Handlers</tt>, <tt>Interceptors</tt>, <tt>Filters</tt> by theirs {@link ObjectScope}
+ */
+public class InvocationObjects {
+	
+	private static Logger log = LogFactory.getLog(InvocationObjects.class);
+	
+	private ConcurrentHashMap<Class<?>, ObjectScope> scopes = new ConcurrentHashMap<Class<?>, ObjectScope>();
+	private ConcurrentHashMap<Class<?>, Object> shared = new ConcurrentHashMap<Class<?>, Object>();
+	private ConcurrentHashMap<Class<?>, ArrayBlockingQueue<Object>> pools = new ConcurrentHashMap<Class<?>, ArrayBlockingQueue<Object>>();
+	
+	
+	@SuppressWarnings("unchecked")
+	public <T> T get(Class<?> type, InvocationContext c) throws Exception {
+		
+		ObjectScope scope = getScope(type);
+		
+		if(scope == ObjectScope.SHARED){
+			return (T)getShared(type, c);
+		}
+		
+		if(scope == ObjectScope.POOLED){
+			Object ob = getPool(type).poll();
+			if(ob != null){
+				return (T)ob;
+			}
+		}
+		
+		return (T)CoreUtil.createInstance(type);
+	}
+	
+	public boolean isShared(Object ob){
+		return getScope(ob.getClass()) == ObjectScope.SHARED;
+	}
+	
+	public void release(Object ob){
+		
+		if(ob == null){
+			return;
+		}
+		
+		Class<?> type = ob.getClass();
+		if(getScope(type) != ObjectScope.POOLED){
+			return;
+		}
+		
+		if(ob instanceof Resettable){
+			try {
+				((Resettable)ob).reset();
+			}catch (Exception e) {
+				log.warn("can't reset "+ob+", it will not be returned to pool", e);
+				return;
+			}
+		}
+		
+		//if pool is full object is skipped
+		getPool(type).offer(ob);
+	}
+	
+	
+	private ObjectScope getScope(Class<?> type){
+		ObjectScope scope = scopes.get(type);
+		if(scope == null){
+			scope = ObjectScope.of(type);
+			scopes.put(type, scope);
+		}
+		return scope;
+	}
+	
+	private Object getShared(Class<?> type, InvocationContext c) throws Exception {
+		Object ob = shared.get(type);
+		if(ob == null){
+			synchronized (shared) {
+				ob = shared.get(type);
+				if(ob == null){
+					InvocationObject created = CoreUtil.createInstance(type);
+					c.initSharedObject(created);
+					shared.put(type, created);
+					ob = created;
+				}
+			}
+		}
+		return ob;
+	}
+	
+	private ArrayBlockingQueue<Object> getPool(Class<?> type){
+		ArrayBlockingQueue<Object> pool = pools.get(type);
+		if(pool == null){
+			int size = type.getAnnotation(Pooled.class).value();
+			pool = new ArrayBlockingQueue<Object>(size);
+			ArrayBlockingQueue<Object> prev = pools.putIfAbsent(type, pool);
+			if(prev != null){
+				pool = prev;
+			}
+		}
+		return pool;
+	}
+
+}
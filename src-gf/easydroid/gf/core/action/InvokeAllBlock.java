@@ -0,0 +1,262 @@
+/*
+ * Copyright 2012 Evgeny Dolganov (evgenij.dolganov@gmail.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package easydroid.gf.core.action;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import easydroid.gf.Action;
+import easydroid.gf.core.deploy.InvocationPlan;
+import easydroid.gf.exception.invoke.InvokeAllException;
+import easydroid.gf.exception.invoke.NullActionException;
+import easydroid.gf.extra.invocation.InvokeAllErrors;
+import easydroid.gf.extra.invocation.InvokeAllOrder;
+import easydroid.util.Util;
+
+/**
+ * Invocation of many actions.
+ * <br>Actions are grouped by type and split into parts.
+ * Each part resolves its {@link InvocationPlan} once.
+ * Parts are invoked by the caller's thread and by helper tasks in the executor.
+ */
+class InvokeAllBlock {
+	
+	private InvocationBlock invocationBlock;
+	private Action<?,?>[] actions;
+	private InvokeAllOrder order;
+	private InvokeAllErrors errorsPolicy;
+	
+	private ConcurrentLinkedQueue<int[]> parts = new ConcurrentLinkedQueue<int[]>();
+	private ConcurrentLinkedQueue<Action<?,?>> invokedQueue = new ConcurrentLinkedQueue<Action<?,?>>();
+	
+	//by index of action, each element is written by one thread
+	private Exception[] errors;
+	private boolean[] invoked;
+	
+	private volatile Exception firstError;
+	
+	
+	InvokeAllBlock(InvocationBlock invocationBlock, 
+			Collection<? extends Action<?,?>> actions, 
+			InvokeAllOrder order,
+			InvokeAllErrors errorsPolicy) {
+		
+		this.invocationBlock = invocationBlock;
+		this.actions = actions.toArray(new Action<?,?>[actions.size()]);
+		this.order = order;
+		this.errorsPolicy = errorsPolicy;
+		
+		errors = new Exception[this.actions.length];
+		invoked = new boolean[this.actions.length];
+		
+		for(Action<?, ?> action : this.actions){
+			if(Util.isEmpty(action)){
+				throw new NullActionException();
+			}
+		}
+	}
+	
+	List<Action<?,?>> invoke(Executor executor, int parallelism) throws Exception {
+		
+		if(parallelism < 1){
+			parallelism = 1;
+		}
+		
+		int partsCount = createParts(parallelism);
+		
+		//helpers for other threads, caller's thread is one of the workers
+		int helpersCount = Math.max(0, Math.min(parallelism, partsCount) - 1);
+		ArrayList<Helper> helpers = new ArrayList<Helper>(helpersCount);
+		for(int i = 0; i < helpersCount; i++){
+			Helper helper = new Helper();
+			helpers.add(helper);
+			executor.execute(helper.task);
+		}
+		
+		invokeParts();
+		waitFor(helpers);
+		
+		return createResult();
+	}
+	
+
+	/**
+	 * Group indexes of actions by type and split big groups
+	 */
+	private int createParts(int parallelism) {
+		
+		LinkedHashMap<Class<?>, ArrayList<Integer>> groups = new LinkedHashMap<Class<?>, ArrayList<Integer>>();
+		for(int i = 0; i < actions.length; i++){
+			Class<?> type = actions[i].getClass();
+			ArrayList<Integer> group = groups.get(type);
+			if(group == null){
+				group = new ArrayList<Integer>();
+				groups.put(type, group);
+			}
+			group.add(i);
+		}
+		
+		int maxPartSize = Math.max(1, (actions.length + parallelism - 1) / parallelism);
+		int count = 0;
+		for(ArrayList<Integer> group : groups.values()){
+			for(int from = 0; from < group.size(); from += maxPartSize){
+				int to = Math.min(group.size(), from + maxPartSize);
+				int[] part = new int[to - from];
+				for(int i = from; i < to; i++){
+					part[i - from] = group.get(i);
+				}
+				parts.add(part);
+				count++;
+			}
+		}
+		return count;
+	}
+	
+	
+	private void invokeParts(){
+		int[] part;
+		while((part = parts.poll()) != null){
+			if(isStopped()){
+				return;
+			}
+			invokePart(part);
+		}
+	}
+
+	private void invokePart(int[] part) {
+		
+		InvocationPlan plan;
+		try {
+			plan = invocationBlock.actionService.resourse.getInvocationPlan(actions[part[0]]);
+		}catch (Exception e) {
+			//same resolve exception for all actions of the part
+			for(int i = 0; i < part.length; i++){
+				setError(part[i], e);
+			}
+			return;
+		}
+		
+		for(int i = 0; i < part.length; i++){
+			
+			if(isStopped()){
+				return;
+			}
+			
+			int index = part[i];
+			Action<?, ?> action = actions[index];
+			try {
+				invocationBlock.invoke(action, plan);
+				invoked[index] = true;
+				invokedQueue.add(action);
+			}catch (Exception e) {
+				setError(index, e);
+			}
+		}
+	}
+	
+	private boolean isStopped(){
+		return errorsPolicy == InvokeAllErrors.FAIL_FAST && firstError != null;
+	}
+	
+	private void setError(int index, Exception e){
+		errors[index] = e;
+		if(firstError == null){
+			firstError = e;
+		}
+	}
+	
+	
+	private void waitFor(List<Helper> helpers) throws Exception {
+		for(int i = 0; i < helpers.size(); i++){
+			Helper helper = helpers.get(i);
+			//all parts are taken, not started helper has nothing to do
+			if(helper.start()){
+				continue;
+			}
+			try {
+				helper.task.get();
+			}catch (ExecutionException e) {
+				Throwable cause = e.getCause();
+				if(cause instanceof Error){
+					throw (Error)cause;
+				}
+				throw (Exception)cause;
+			}
+		}
+	}
+	
+	
+	private class Helper implements Runnable {
+		
+		final FutureTask<Object> task = new FutureTask<Object>(this, null);
+		final AtomicBoolean started = new AtomicBoolean();
+		
+		boolean start(){
+			return started.compareAndSet(false, true);
+		}
+
+		@Override
+		public void run() {
+			if(start()){
+				invokeParts();
+			}
+		}
+		
+	}
+	
+	private List<Action<?,?>> createResult() throws Exception {
+		
+		if(firstError != null){
+			
+			if(errorsPolicy == InvokeAllErrors.FAIL_FAST){
+				throw firstError;
+			}
+			
+			LinkedHashMap<Action<?,?>, Exception> map = new LinkedHashMap<Action<?,?>, Exception>();
+			for(int i = 0; i < actions.length; i++){
+				if(errors[i] != null){
+					map.put(actions[i], errors[i]);
+				}
+			}
+			throw new InvokeAllException(map, getInvoked());
+		}
+		
+		return getInvoked();
+	}
+	
+	private List<Action<?,?>> getInvoked(){
+		
+		if(order == InvokeAllOrder.UNORDERED){
+			return new ArrayList<Action<?,?>>(invokedQueue);
+		}
+		
+		ArrayList<Action<?,?>> out = new ArrayList<Action<?,?>>(actions.length);
+		for(int i = 0; i < actions.length; i++){
+			if(invoked[i]){
+				out.add(actions[i]);
+			}
+		}
+		return out;
+	}
+
+}
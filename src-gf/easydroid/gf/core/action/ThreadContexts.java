@@ -0,0 +1,61 @@
+/*
+ * Copyright 2012 Evgeny Dolganov (evgenij.dolganov@gmail.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package easydroid.gf.core.action;
+
+import java.util.ArrayList;
+
+import easydroid.util.Util;
+
+/**
+ * Per-thread stack of recycled {@link InvocationContext} objects.
+ * <br>Invocations in one thread are always nested, so contexts are taken and returned in LIFO order.
+ */
+class ThreadContexts {
+	
+	private static final ThreadLocal<ThreadContexts> THREAD_LOCAL = new ThreadLocal<ThreadContexts>();
+	
+	static ThreadContexts get(){
+		ThreadContexts out = THREAD_LOCAL.get();
+		if(out == null){
+			out = new ThreadContexts();
+			THREAD_LOCAL.set(out);
+		}
+		return out;
+	}
+	
+	private ArrayList<InvocationContext> contexts = new ArrayList<InvocationContext>();
+	private int size;
+	
+	private ThreadContexts() {
+		super();
+	}
+	
+	InvocationContext acquire(){
+		if(size == contexts.size()){
+			contexts.add(new InvocationContext());
+		}
+		InvocationContext c = contexts.get(size);
+		size++;
+		return c;
+	}
+	
+	void release(InvocationContext c){
+		size--;
+		Util.checkState(contexts.get(size) == c, "invalid order of released contexts");
+		c.clear();
+	}
+
+}
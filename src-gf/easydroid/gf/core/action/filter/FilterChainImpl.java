@@ -17,77 +17,70 @@ package easydroid.gf.core.action.filter;
 
 import easydroid.gf.Filter;
 import easydroid.gf.core.action.InvocationContext;
-import easydroid.gf.core.action.interceptor.InterceptorsBlock;
 import easydroid.gf.core.action.trace.Body;
+import easydroid.gf.extra.metrics.MetricKind;
 import easydroid.gf.service.FilterChain;
 
-public class FilterChainImpl {
+/**
+ * One chain object for all filters of the invocation.
+ * <br>Current position is kept in index and restored after each {@link #doNext()},
+ * so a filter can call it many times.
+ */
+public class FilterChainImpl implements FilterChain {
 	
 	InvocationContext c;
+	
+	//index of the filter which is invoking now
+	private int index = -1;
 
 	public FilterChainImpl(InvocationContext context) {
 		this.c = context;
 	}
 
 	public void invoke() throws Exception {
-		int firstIndex = 0;
-		if(hasItem(firstIndex)){
-			FilterChainItem first = new FilterChainItem(this, firstIndex);
-			first.invoke();
-		} else {
-			doInterceptorsBlock();
-		}
+		doNext();
 	}
-	
-	boolean hasItem(int index){
-		return index < c.filters.size();
-	}
-	
-	Filter getItem(int index){
-		return c.filters.get(index);
+
+	@Override
+	public void doNext() throws Exception {
+		
+		int cur = index;
+		int next = cur + 1;
+		if(next >= c.filters.size()){
+			c.getInterceptorChain().invoke();
+			return;
+		}
+		
+		index = next;
+		Filter filter = c.filters.get(next);
+		c.enterItemProbe(MetricKind.FILTER, filter);
+		boolean ok = false;
+		try {
+			if( ! c.traceWrapper.isTracing()){
+				invokeFilter(filter);
+			} else {
+				invokeWithTrace(filter);
+			}
+			ok = true;
+		}finally {
+			index = cur;
+			c.exitProbe(ok);
+		}
 	}
 	
-	void doInterceptorsBlock() throws Exception {
-		InterceptorsBlock block = new InterceptorsBlock(c);
-		block.invoke();
+	private void invokeFilter(Filter filter) throws Exception {
+		c.initFilter(filter);
+		filter.invoke(c.action, this);
 	}
-
-}
-
-class FilterChainItem implements FilterChain {
 	
-	FilterChainImpl owner;
-	int index;
-
-	public FilterChainItem(FilterChainImpl owner, int index) {
-		super();
-		this.owner = owner;
-		this.index = index;
-	}
-
-	void invoke() throws Exception {
-		
-		final Filter filter = owner.getItem(index);
-		
-		owner.c.traceWrapper.wrapHandler(filter, new Body() {
+	private void invokeWithTrace(final Filter filter) throws Exception {
+		c.traceWrapper.wrapHandler(filter, new Body() {
 			
 			@Override
 			public void invocation() throws Throwable {
-				owner.c.initFilter(filter);
-				filter.invoke(owner.c.action, FilterChainItem.this);
+				invokeFilter(filter);
 			}
 		});
-
 	}
 
-	public void doNext() throws Exception {
-		int nextIndex = index + 1;
-		if( owner.hasItem(nextIndex)){
-			FilterChainItem next = new FilterChainItem(owner, nextIndex);
-			next.invoke();
-		} else {
-			owner.doInterceptorsBlock();
-		}
-	}
-	
 }
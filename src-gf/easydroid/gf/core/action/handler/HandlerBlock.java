@@ -17,6 +17,7 @@ package easydroid.gf.core.action.handler;
 
 import easydroid.gf.core.action.InvocationContext;
 import easydroid.gf.core.action.trace.Body;
+import easydroid.gf.extra.metrics.MetricKind;
 
 @SuppressWarnings({ "unchecked"})
 public class HandlerBlock {
@@ -29,15 +30,33 @@ public class HandlerBlock {
 	
 	public void invoke() throws Exception {
 		
+		c.enterItemProbe(MetricKind.HANDLER, c.handler);
+		boolean ok = false;
+		try {
+			if( ! c.traceWrapper.isTracing()){
+				invokeHandler();
+			} else {
+				invokeWithTrace();
+			}
+			ok = true;
+		}finally {
+			c.exitProbe(ok);
+		}
+	}
+	
+	private void invokeWithTrace() throws Exception {
 		c.traceWrapper.wrapHandler(c.handler, new Body() {
 			
 			@Override
 			public void invocation() throws Throwable {
-				c.initMappingObject(c.handler);
-				c.handler.invoke(c.action);
+				invokeHandler();
 			}
 		});
-
+	}
+	
+	private void invokeHandler() throws Exception {
+		c.initMappingObject(c.handler);
+		c.handler.invoke(c.action);
 	}
 
 
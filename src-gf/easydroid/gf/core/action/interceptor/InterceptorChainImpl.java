@@ -17,79 +17,71 @@ package easydroid.gf.core.action.interceptor;
 
 import easydroid.gf.Interceptor;
 import easydroid.gf.core.action.InvocationContext;
-import easydroid.gf.core.action.handler.HandlerBlock;
 import easydroid.gf.core.action.trace.Body;
+import easydroid.gf.extra.metrics.MetricKind;
 import easydroid.gf.service.InterceptorChain;
 
-public class InterceptorChainImpl {
+/**
+ * One chain object for all interceptors of the invocation level.
+ * <br>Current position is kept in index and restored after each {@link #doNext()},
+ * so an interceptor can call it many times.
+ */
+@SuppressWarnings({ "rawtypes", "unchecked" })
+public class InterceptorChainImpl implements InterceptorChain {
 	
 	InvocationContext c;
+	
+	//index of the interceptor which is invoking now
+	private int index = -1;
 
 	public InterceptorChainImpl(InvocationContext context) {
 		this.c = context;
 	}
 
 	public void invoke() throws Exception {
-		int firstIndex = 0;
-		if(hasItem(firstIndex)){
-			InterceptorChainItem first = new InterceptorChainItem(this, firstIndex);
-			first.invoke();
-		} else {
-			doHandlerBlock();
-		}
-		
-	}
-	
-	boolean hasItem(int index){
-		return index < c.interceptors.size();
+		doNext();
 	}
 	
-	Interceptor<?> getItem(int index){
-		return c.interceptors.get(index);
-	}
-	
-	void doHandlerBlock() throws Exception {
-		HandlerBlock block = new HandlerBlock(c);
-		block.invoke();
+	@Override
+	public void doNext() throws Exception {
+		
+		int cur = index;
+		int next = cur + 1;
+		if(next >= c.interceptors.size()){
+			c.getHandlerBlock().invoke();
+			return;
+		}
+		
+		index = next;
+		Interceptor interceptor = c.interceptors.get(next);
+		c.enterItemProbe(MetricKind.INTERCEPTOR, interceptor);
+		boolean ok = false;
+		try {
+			if( ! c.traceWrapper.isTracing()){
+				invokeInterceptor(interceptor);
+			} else {
+				invokeWithTrace(interceptor);
+			}
+			ok = true;
+		}finally {
+			index = cur;
+			c.exitProbe(ok);
+		}
 	}
-
-}
-
-@SuppressWarnings({ "rawtypes", "unchecked" })
-class InterceptorChainItem implements InterceptorChain {
 	
-	InterceptorChainImpl owner;
-	int index;
-
-	public InterceptorChainItem(InterceptorChainImpl owner, int index) {
-		super();
-		this.owner = owner;
-		this.index = index;
+	private void invokeInterceptor(Interceptor interceptor) throws Exception {
+		c.initMappingObject(interceptor);
+		interceptor.invoke(c.action, this);
 	}
 	
-	void invoke() throws Exception {
-		
-		final Interceptor interceptor = owner.getItem(index);
-		
-		owner.c.traceWrapper.wrapHandler(interceptor, new Body() {
+	private void invokeWithTrace(final Interceptor interceptor) throws Exception {
+		c.traceWrapper.wrapHandler(interceptor, new Body() {
 			
 			@Override
 			public void invocation() throws Throwable {
-				owner.c.initMappingObject(interceptor);
-				interceptor.invoke(owner.c.action, InterceptorChainItem.this);
+				invokeInterceptor(interceptor);
 			}
 		});
-
 	}
 
-	public void doNext() throws Exception {
-		int nextIndex = index + 1;
-		if( owner.hasItem(nextIndex)){
-			InterceptorChainItem next = new InterceptorChainItem(owner, nextIndex);
-			next.invoke();
-		} else {
-			owner.doHandlerBlock();
-		}
-	}
-	
 }
@@ -0,0 +1,210 @@
+/*
+ * Copyright 2012 Evgeny Dolganov (evgenij.dolganov@gmail.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package easydroid.gf.core.action.trace;
+
+import java.util.Arrays;
+
+import easydroid.gf.extra.trace.InvocaitonEndStatus;
+import easydroid.gf.extra.trace.Trace;
+import easydroid.gf.extra.trace.TraceElement;
+import easydroid.gf.extra.trace.TraceLevel;
+import easydroid.gf.extra.trace.TraceLevelItem;
+
+/**
+ * Cheap recorder of invocation boundaries: it keeps only owners and times 
+ * in reusable arrays and builds {@link Trace} on demand, 
+ * e.g. only for slow invocations.
+ * <br>Structure is the same as in {@link TraceWrapper}: 
+ * levels contain items (filters, interceptors, handler), items contain levels of sub invocations.
+ * <br>Recorder is used by one thread, elements of parallel branches in other threads 
+ * are added after their end by {@link #addParallelLevel(long, long, boolean)}.
+ */
+public class InvocationRecorder {
+	
+	public static final int MAX_ELEMENTS = 4096;
+	private static final int INIT_CAPACITY = 32;
+	
+	private Thread thread;
+	private int size;
+	//innermost open element
+	private int current = -1;
+	//count of not recorded elements over the limit
+	private int dropped;
+	
+	private Object[] owners = new Object[INIT_CAPACITY];
+	private long[] starts = new long[INIT_CAPACITY];
+	private long[] ends = new long[INIT_CAPACITY];
+	private int[] parents = new int[INIT_CAPACITY];
+	//element which was open before the element
+	private int[] prevOpen = new int[INIT_CAPACITY];
+	private byte[] flags = new byte[INIT_CAPACITY];
+	
+	private static final byte LEVEL = 1;
+	private static final byte PARALLEL = 2;
+	private static final byte ERROR = 4;
+	
+	/**
+	 * Start recording of the root level in the current thread
+	 */
+	public void start(){
+		reset();
+		thread = Thread.currentThread();
+		enter(null, LEVEL);
+	}
+	
+	/**
+	 * Stop the root level
+	 * @return duration of the root level in nanos
+	 */
+	public long stop(boolean isError){
+		exit(0, isError);
+		return ends[0] - starts[0];
+	}
+	
+	public boolean isOwnerThread(){
+		return thread == Thread.currentThread();
+	}
+	
+	/**
+	 * @return index for {@link #exit(int, boolean)} or -1 if element is not recorded
+	 */
+	public int enterItem(Object owner){
+		return enter(owner, (byte)0);
+	}
+	
+	public int enterLevel(boolean isParallel){
+		return enter(null, isParallel? (byte)(LEVEL | PARALLEL) : LEVEL);
+	}
+	
+	public void exit(int index, boolean isError){
+		if(index == -1){
+			return;
+		}
+		ends[index] = System.nanoTime();
+		if(isError){
+			flags[index] |= ERROR;
+		}
+		current = prevOpen[index];
+	}
+	
+	/**
+	 * Add finished level of parallel branch which was invoked in other thread
+	 */
+	public void addParallelLevel(long startNanos, long endNanos, boolean isError){
+		int index = enter(null, (byte)(LEVEL | PARALLEL));
+		if(index == -1){
+			return;
+		}
+		starts[index] = startNanos;
+		exit(index, isError);
+		ends[index] = endNanos;
+	}
+	
+	private int enter(Object owner, byte flag){
+		
+		if(size == owners.length && ! grow()){
+			dropped++;
+			return -1;
+		}
+		
+		int index = size++;
+		owners[index] = owner;
+		flags[index] = flag;
+		parents[index] = getParent(flag);
+		prevOpen[index] = current;
+		current = index;
+		starts[index] = System.nanoTime();
+		return index;
+	}
+	
+	/**
+	 * Items are in the innermost open level, levels are in the innermost open item
+	 */
+	private int getParent(byte flag){
+		boolean isLevel = (flag & LEVEL) != 0;
+		int p = current;
+		while(p != -1 && ((flags[p] & LEVEL) != 0) == isLevel){
+			p = parents[p];
+		}
+		return p;
+	}
+	
+	private boolean grow(){
+		int capacity = owners.length;
+		if(capacity >= MAX_ELEMENTS){
+			return false;
+		}
+		int newCapacity = Math.min(capacity * 2, MAX_ELEMENTS);
+		owners = Arrays.copyOf(owners, newCapacity);
+		starts = Arrays.copyOf(starts, newCapacity);
+		ends = Arrays.copyOf(ends, newCapacity);
+		parents = Arrays.copyOf(parents, newCapacity);
+		prevOpen = Arrays.copyOf(prevOpen, newCapacity);
+		flags = Arrays.copyOf(flags, newCapacity);
+		return true;
+	}
+	
+	public int getDroppedCount(){
+		return dropped;
+	}
+	
+	/**
+	 * Build trace of recorded elements, recording must be stopped
+	 */
+	public Trace buildTrace(Object owner, Class<?> actionType){
+		
+		TraceElement[] elems = new TraceElement[size];
+		Trace trace = new Trace(owner);
+		trace.setActionType(actionType);
+		elems[0] = trace;
+		setValues(trace, 0);
+		
+		for(int i = 1; i < size; i++){
+			TraceElement elem;
+			if((flags[i] & LEVEL) != 0){
+				TraceLevel level = new TraceLevel();
+				level.setParallel((flags[i] & PARALLEL) != 0);
+				elem = level;
+			} else {
+				elem = new TraceLevelItem(owners[i]);
+			}
+			setValues(elem, i);
+			elems[i] = elem;
+			elems[parents[i]].addChild(elem);
+		}
+		return trace;
+	}
+	
+	private void setValues(TraceElement elem, int index){
+		elem.setTime(starts[index], ends[index]);
+		elem.setEndStatus((flags[index] & ERROR) != 0? 
+				InvocaitonEndStatus.WITH_EXCEPTION : InvocaitonEndStatus.SUCCESSED);
+	}
+	
+	/**
+	 * Drop references to owners of the last recording
+	 */
+	public void reset(){
+		for(int i = 0; i < size; i++){
+			owners[i] = null;
+		}
+		size = 0;
+		current = -1;
+		dropped = 0;
+		thread = null;
+	}
+
+}
@@ -24,6 +24,7 @@ import easydroid.gf.extra.trace.Trace;
 import easydroid.gf.extra.trace.TraceElement;
 import easydroid.gf.extra.trace.TraceLevel;
 import easydroid.gf.extra.trace.TraceLevelItem;
+import easydroid.gf.extra.trace.TraceListener;
 import easydroid.gf.key.TraceHandlers;
 import easydroid.util.ExceptionUtil;
 import easydroid.util.Util;
@@ -37,15 +38,45 @@ public class TraceWrapper {
 		return THREAD_LOCAL_DATA.get() == null;
 	}
 	
+	//for invocations without tracing, it has no state
+	private static final TraceWrapper DISABLED = new TraceWrapper();
+	
+	/**
+	 * Wrapper for new invocation.
+	 * <br>If there is no tracing in current thread the shared disabled wrapper is returned.
+	 */
+	public static TraceWrapper create(boolean isTracing){
+		return create(isTracing, null);
+	}
+	
+	/**
+	 * @param listener receiver of the root trace instead of action's attributes, can be null
+	 */
+	public static TraceWrapper create(boolean isTracing, TraceListener listener){
+		if( ! isTracing && isEmptyThreadLocal()){
+			return DISABLED;
+		}
+		return new TraceWrapper(isTracing, listener);
+	}
+	
 	private Data d;
 	private final boolean isRoot;
 	
+	private TraceWrapper(){
+		d = new Data(false, null);
+		isRoot = true;
+	}
+	
 	public TraceWrapper(boolean isTracing){
+		this(isTracing, null);
+	}
+	
+	private TraceWrapper(boolean isTracing, TraceListener listener){
 		
 		d = THREAD_LOCAL_DATA.get();
 		if(d == null){
 			isRoot = true;
-			d = new Data(isTracing);
+			d = new Data(isTracing, listener);
 			if(isTracing){
 				THREAD_LOCAL_DATA.set(d);
 			}
@@ -55,6 +86,10 @@ public class TraceWrapper {
 		
 	}
 	
+	public boolean isTracing(){
+		return d.isTracing;
+	}
+	
 	public void wrapInvocationBlock(Object owner, Action action, Body body) throws Exception {
 		
 		if( ! d.isTracing) {
@@ -63,6 +98,7 @@ public class TraceWrapper {
 		}
 		
 		Trace trace = new Trace(owner);
+		trace.setActionType(action.getClass());
 		trace.start();
 		
 		if( ! isRoot){
@@ -81,12 +117,17 @@ public class TraceWrapper {
 		} finally {
 			
 			trace.stop();
-			TraceHandlers.setTrace(action, trace);
 			
 			d.parentsQueue.removeLast();
 			if(isRoot){
 				THREAD_LOCAL_DATA.remove();
 			}
+			
+			if(d.listener == null){
+				TraceHandlers.setTrace(action, trace);
+			} else if(isRoot){
+				d.listener.onTrace(action, trace);
+			}
 		}
 	}
 
@@ -143,6 +184,47 @@ public class TraceWrapper {
 		}
 	}
 
+	/**
+	 * Create levels for parallel sub invocations of the current handler.
+	 * <br>All levels are added in this thread, each of them is filled by {@link #wrapParallelLevel(TraceLevel, Body)}.
+	 */
+	public TraceLevel[] createParallelLevels(int count){
+		
+		TraceElement parent = d.parentsQueue.getLast();
+		TraceLevel[] levels = new TraceLevel[count];
+		for(int i = 0; i < count; i++){
+			TraceLevel level = new TraceLevel();
+			level.setParallel(true);
+			addSubLevelToItem(parent, level);
+			levels[i] = level;
+		}
+		return levels;
+	}
+	
+	/**
+	 * Fill the level of parallel sub invocation in the current thread
+	 */
+	public void wrapParallelLevel(TraceLevel level, Body body) throws Exception {
+		
+		level.start();
+		d.parentsQueue.addLast(level);
+		
+		try {
+			body.invocation();
+			level.setEndStatus(InvocaitonEndStatus.SUCCESSED);
+		}catch (Throwable t) {
+			level.setEndStatus(InvocaitonEndStatus.WITH_EXCEPTION);
+			level.setThrowable(t);
+			throw ExceptionUtil.getExceptionOrThrowError(t);
+		}finally{
+			level.stop();
+			d.parentsQueue.removeLast();
+			if(isRoot){
+				THREAD_LOCAL_DATA.remove();
+			}
+		}
+	}
+
 	private void addSubLevelToItem(TraceElement parent, TraceLevel level) {
 		
 		Util.checkState(parent instanceof TraceLevel, "expected type: "+TraceLevel.class);
@@ -172,10 +254,12 @@ public class TraceWrapper {
 		
 		public final boolean isTracing;
 		public final LinkedList<TraceElement> parentsQueue;
+		public final TraceListener listener;
 
-		public Data(boolean isTracing) {
+		public Data(boolean isTracing, TraceListener listener) {
 
 			this.isTracing = isTracing;
+			this.listener = listener;
 			
 			if(isTracing){
 				parentsQueue = new LinkedList<TraceElement>();
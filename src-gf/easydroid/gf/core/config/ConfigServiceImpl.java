@@ -17,31 +17,40 @@ package easydroid.gf.core.config;
 
 import java.lang.reflect.ParameterizedType;
 import java.util.HashMap;
+import java.util.Map;
 import java.util.Properties;
-import java.util.concurrent.locks.Lock;
-import java.util.concurrent.locks.ReadWriteLock;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.concurrent.ConcurrentHashMap;
 
+import easydroid.gf.config.ConfigHandle;
 import easydroid.gf.config.ConfigKey;
 import easydroid.gf.core.config.converter.AbstractConverter;
 import easydroid.gf.core.config.converter.ConfigKeyConverters;
+import easydroid.gf.core.util.CoreUtil;
 import easydroid.gf.exception.config.EmptyClassException;
 import easydroid.gf.exception.config.GetConfigValueException;
 import easydroid.gf.exception.config.ParsePropertiesException;
 import easydroid.gf.service.ConfigService;
 import easydroid.util.Util;
 
-
+/**
+ * Config values are in immutable map, every change publishes a new one.
+ * <br>Reads take no locks. Default values are resolved once per key type.
+ */
 public class ConfigServiceImpl implements ConfigService {
 	
+	private static final Object NULL_VALUE = new Object();
+	
+	//guarded by this
 	private HashMap<Class<?>, AbstractConverter<?>> converters = new ConfigKeyConverters().map;
-	private HashMap<Class<?>, Object> values = new HashMap<Class<?>, Object>();
-	private ReadWriteLock rw = new ReentrantReadWriteLock();
-	private Lock readLock = rw.readLock();
-	private Lock writeLock = rw.writeLock();
 	
+	//[key type - value], never changed after publication
+	private volatile Map<Class<?>, Object> values = new HashMap<Class<?>, Object>();
+	
+	//[key type - default value or NULL_VALUE]
+	private ConcurrentHashMap<Class<?>, Object> defaults = new ConcurrentHashMap<Class<?>, Object>();
 	
-	public <T> void addConverter(Class<T> valueType, AbstractConverter<T> converter){
+	
+	public synchronized <T> void addConverter(Class<T> valueType, AbstractConverter<T> converter){
 		converters.put(valueType, converter);
 	}
 	
@@ -51,11 +60,10 @@ public class ConfigServiceImpl implements ConfigService {
 	public void setConfigValues(Properties props){
 		if(props == null) return;
 		
-		writeLock.lock();
-		try {
-			tryAddValues(props);
-		}finally{
-			writeLock.unlock();
+		synchronized (this) {
+			HashMap<Class<?>, Object> newValues = new HashMap<Class<?>, Object>(values);
+			tryAddValues(newValues, props);
+			values = newValues;
 		}
 		
 	} 
@@ -68,25 +76,24 @@ public class ConfigServiceImpl implements ConfigService {
 			throw new EmptyClassException();
 		}
 		
-		writeLock.lock();
-		try {
-			values.put(keyType, value);
-		}finally{
-			writeLock.unlock();
+		synchronized (this) {
+			HashMap<Class<?>, Object> newValues = new HashMap<Class<?>, Object>(values);
+			newValues.put(keyType, value);
+			values = newValues;
 		}
 		
 	}
 	
 	
-	private void tryAddValues(Properties props) {
+	private void tryAddValues(HashMap<Class<?>, Object> newValues, Properties props) {
 		
 		for(Object key : props.keySet()){
-			addValue((String)key, (String)props.get(key));
+			addValue(newValues, (String)key, (String)props.get(key));
 		}
 	}
 
 
-	private void addValue(String typeInfo, String rawValue) {
+	private void addValue(HashMap<Class<?>, Object> newValues, String typeInfo, String rawValue) {
 		
 		Class<?> keyType = null;
 		try {
@@ -112,20 +119,14 @@ public class ConfigServiceImpl implements ConfigService {
 		Util.checkState( ! Util.isEmpty(converter), "can't find converter for value type ["+valueType.getName()+"]");
 		
 		Object value = converter.toValue(rawValue);
-		values.put(keyType, value);
+		newValues.put(keyType, value);
 	}
 
 
 	@Override
 	public <T> T getConfig(ConfigKey<T> key) {
 		Util.checkArgumentForEmpty(key, "key is null");
-		
-		readLock.lock();
-		try {
-			return tryReturnValue(key);
-		}finally{
-			readLock.unlock();
-		}
+		return tryReturnValue(values, key);
 	}
 	
 	@Override
@@ -133,31 +134,101 @@ public class ConfigServiceImpl implements ConfigService {
 		Boolean val = getConfig(key);
 		return Boolean.TRUE.equals(val);
 	}
+	
+	@Override
+	public <T> ConfigHandle<T> handle(Class<? extends ConfigKey<T>> keyType) {
+		if(keyType == null){
+			throw new EmptyClassException();
+		}
+		ConfigKey<T> key = CoreUtil.createInstance(keyType);
+		return new Handle<T>(this, key);
+	}
 
 	@SuppressWarnings("unchecked")
-	private <T> T tryReturnValue(ConfigKey<T> key) {
+	private <T> T tryReturnValue(Map<Class<?>, Object> values, ConfigKey<T> key) {
 		Class<?> type = key.getClass();
-		if(values.containsKey(type)){
-			
-			Object value = values.get(type);
+		
+		Object value = values.get(type);
+		if(value != null || values.containsKey(type)){
 			try{
 				T out = (T) value;
 				return out;
 			}catch (Exception e) {
 				throw new GetConfigValueException("can't converting value to valid type for key ["+type.getName()+"]", e);
 			}
-			
-		} else {
-			if(key.hasDefaultValue()){
-				try {
-					return key.getDefaultValue();
-				} catch (Exception e) {
-					throw new GetConfigValueException("can't get default value for key ["+type.getName()+"]", e);
-				}
-			} else {
-				throw new GetConfigValueException("unknown key ["+type.getName()+"]");
+		}
+		
+		return getDefaultValue(key);
+	}
+	
+	@SuppressWarnings("unchecked")
+	private <T> T getDefaultValue(ConfigKey<T> key){
+		
+		Class<?> type = key.getClass();
+		Object cached = defaults.get(type);
+		if(cached != null){
+			return cached == NULL_VALUE? null : (T)cached;
+		}
+		
+		if( ! key.hasDefaultValue()){
+			throw new GetConfigValueException("unknown key ["+type.getName()+"]");
+		}
+		
+		T out;
+		try {
+			out = key.getDefaultValue();
+		} catch (Exception e) {
+			throw new GetConfigValueException("can't get default value for key ["+type.getName()+"]", e);
+		}
+		
+		defaults.putIfAbsent(type, out == null? NULL_VALUE : out);
+		return out;
+	}
+	
+	
+	
+	private static class Handle<T> implements ConfigHandle<T> {
+		
+		final ConfigServiceImpl owner;
+		final ConfigKey<T> key;
+		
+		//value for some published values map
+		volatile Resolved<T> resolved;
+		
+		Handle(ConfigServiceImpl owner, ConfigKey<T> key) {
+			this.owner = owner;
+			this.key = key;
+		}
+
+		@Override
+		public T get() throws GetConfigValueException {
+			Map<Class<?>, Object> curValues = owner.values;
+			Resolved<T> cur = resolved;
+			if(cur != null && cur.values == curValues){
+				return cur.value;
 			}
+			T value = owner.tryReturnValue(curValues, key);
+			resolved = new Resolved<T>(curValues, value);
+			return value;
+		}
+
+		@Override
+		public boolean isTrue() throws GetConfigValueException {
+			return Boolean.TRUE.equals(get());
+		}
+		
+	}
+	
+	private static class Resolved<T> {
+		
+		final Map<Class<?>, Object> values;
+		final T value;
+		
+		Resolved(Map<Class<?>, Object> values, T value) {
+			this.values = values;
+			this.value = value;
 		}
+		
 	}
 
 }
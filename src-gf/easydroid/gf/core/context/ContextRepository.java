@@ -17,19 +17,118 @@ package easydroid.gf.core.context;
 
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ConcurrentHashMap;
 
-public class ContextRepository {
+import easydroid.gf.extra.util.ReflectionsUtil.ObjectFinder;
+
+/**
+ * Context objects with lookup by assignable type.
+ * <br>Last added object has priority. If there is no object in this repository
+ * the lookup is delegated to the parent repository (engine's context for invocation context).
+ */
+public class ContextRepository implements ObjectFinder {
+	
+	//for small repositories linear search is cheaper than index
+	private static final int INDEX_MIN_SIZE = 4;
+	
+	private static final Object NOT_FOUND = new Object();
+	
+	private ContextRepository parent;
 	
-	private CopyOnWriteArrayList<Object> list = new CopyOnWriteArrayList<Object>();
+	//guarded by this
+	private ArrayList<Object> list = new ArrayList<Object>();
+	private volatile int size;
+	
+	//[type - object or NOT_FOUND], dropped on every add
+	private volatile ConcurrentHashMap<Class<?>, Object> index;
+	
+	public ContextRepository() {
+		this(null);
+	}
+	
+	public ContextRepository(ContextRepository parent) {
+		this.parent = parent;
+	}
+	
+	/**
+	 * Remove all objects and set new parent for reuse of this repository
+	 */
+	public synchronized void reset(ContextRepository parent) {
+		this.parent = parent;
+		list.clear();
+		size = 0;
+		index = null;
+	}
 	
 	public synchronized void add(Object ob) {
-		list.add(0, ob);
+		list.add(ob);
+		size = list.size();
+		index = null;
+	}
+	
+	@Override
+	public Object find(Class<?> type) {
+		Object out = findLocal(type);
+		if(out == null && parent != null){
+			out = parent.find(type);
+		}
+		return out;
+	}
+	
+	private Object findLocal(Class<?> type) {
+		
+		if(size == 0){
+			return null;
+		}
+		
+		ConcurrentHashMap<Class<?>, Object> curIndex = index;
+		if(curIndex != null){
+			Object cached = curIndex.get(type);
+			if(cached != null){
+				return cached == NOT_FOUND? null : cached;
+			}
+		}
+		
+		synchronized (this) {
+			
+			Object out = null;
+			for(int i = list.size()-1; i > -1; i--){
+				Object candidat = list.get(i);
+				if(type.isAssignableFrom(candidat.getClass())){
+					out = candidat;
+					break;
+				}
+			}
+			
+			if(list.size() >= INDEX_MIN_SIZE){
+				if(index == null){
+					index = new ConcurrentHashMap<Class<?>, Object>();
+				}
+				index.put(type, out == null? NOT_FOUND : out);
+			}
+			
+			return out;
+		}
 	}
 
+	/**
+	 * All objects of this and parent repositories in lookup order
+	 */
 	public Collection<Object> getAll() {
-		ArrayList<Object> out = new ArrayList<Object>(list);
+		ArrayList<Object> out = new ArrayList<Object>();
+		appendAll(out);
 		return out;
 	}
+	
+	private void appendAll(ArrayList<Object> out){
+		synchronized (this) {
+			for(int i = list.size()-1; i > -1; i--){
+				out.add(list.get(i));
+			}
+		}
+		if(parent != null){
+			parent.appendAll(out);
+		}
+	}
 
 }
@@ -32,6 +32,11 @@ public class ContextServiceImpl implements ContextService, StaticContext {
 	public Collection<Object> getStaticContextObjects() {
 		return repo.getAll();
 	}
+	
+	@Override
+	public ContextRepository getStaticContextRepository() {
+		return repo;
+	}
  
 	@Override
 	public void setContextObjects(Collection<Object> objects) {
@@ -20,5 +20,7 @@ import java.util.Collection;
 public interface StaticContext {
 
 	Collection<Object> getStaticContextObjects();
+	
+	ContextRepository getStaticContextRepository();
 
 }
@@ -15,28 +15,43 @@
  */
 package easydroid.gf.core.deploy;
 
+import java.io.File;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.CopyOnWriteArraySet;
 
-import easydroid.core.exception.InvalidStateException;
 import easydroid.gf.Action;
 import easydroid.gf.Filter;
 import easydroid.gf.Handler;
 import easydroid.gf.Interceptor;
 import easydroid.gf.InvocationObject;
-import easydroid.gf.annotation.Mapping;
+import easydroid.gf.config.ConfigHandle;
+import easydroid.gf.core.scan.DefaultClassScanner;
 import easydroid.gf.core.util.CoreUtil;
 import easydroid.gf.exception.deploy.NoMappingAnnotationException;
 import easydroid.gf.exception.invoke.HandlerNotFoundException;
 import easydroid.gf.exception.invoke.NotOneHandlerException;
 import easydroid.gf.extra.invocation.InvocationObjectInitializer;
+import easydroid.gf.extra.registry.HandlerRegistry;
+import easydroid.gf.extra.registry.SimpleHandlerRegistry;
+import easydroid.gf.extra.resolver.HandlerResolver;
+import easydroid.gf.extra.scan.CacheableClassScanner;
 import easydroid.gf.extra.scan.ClassScanner;
+import easydroid.gf.extra.scan.ScanCache;
+import easydroid.gf.key.HandlerResolverKey;
+import easydroid.gf.key.InvokeDepthMaxSize;
 import easydroid.gf.key.scan.ClassScannerKey;
+import easydroid.gf.key.scan.ScanCacheDir;
+import easydroid.gf.key.scan.ScanCacheEnabled;
+import easydroid.gf.key.scan.ScanParallelism;
 import easydroid.gf.service.ConfigService;
 import easydroid.gf.service.DeployService;
 import easydroid.util.Util;
@@ -48,6 +63,13 @@ public class DeployServiceImpl implements DeployService, ResourseService {
 	Logger log = LogFactory.getLog(getClass());
 	
 	ConfigService config;
+	ConfigHandle<Integer> invokeDepthMaxSize;
+	ConfigHandle<Class<?>> classScanner;
+	ConfigHandle<String> scanCacheDir;
+	ConfigHandle<Boolean> scanCacheEnabled;
+	ConfigHandle<Integer> scanParallelism;
+	ConfigHandle<HandlerResolver> handlerResolver;
+	final Object resolveLock = new Object();
 	
 	TypesRepository handlerTypes;
 	TypesRepository interceptorTypes;
@@ -56,11 +78,21 @@ public class DeployServiceImpl implements DeployService, ResourseService {
 	
 	CopyOnWriteArrayList<InvocationObjectInitializer> initializers = new CopyOnWriteArrayList<InvocationObjectInitializer>();
 	
+	//[action type - plan], replaced by new map on every deploy change under plansLock
+	volatile ConcurrentHashMap<Class<?>, InvocationPlan> plans = new ConcurrentHashMap<Class<?>, InvocationPlan>();
+	final Object plansLock = new Object();
+	
 	
 	
 	public DeployServiceImpl(ConfigService config) {
 		
 		this.config = config;
+		this.invokeDepthMaxSize = config.handle(InvokeDepthMaxSize.class);
+		this.classScanner = config.handle(ClassScannerKey.class);
+		this.scanCacheDir = config.handle(ScanCacheDir.class);
+		this.scanCacheEnabled = config.handle(ScanCacheEnabled.class);
+		this.scanParallelism = config.handle(ScanParallelism.class);
+		this.handlerResolver = config.handle(HandlerResolverKey.class);
 		
 		interceptorTypes = new TypesRepositoryImpl();
 		interceptorTypes.setOneHandlerOnly(false);
@@ -72,22 +104,81 @@ public class DeployServiceImpl implements DeployService, ResourseService {
 
 	@Override
 	public void putHandler(Class<? extends Handler<?>> clazz) {
+		ObjectScope.of(clazz);
 		Set<Class<?>> targets = handlerTypes.put(clazz);
+		clearInvocationPlans(targets);
 		logMapping("PUT HANDLER:", clazz, targets);
 	}
 
 	@Override
 	public void putInterceptor(Class<? extends Interceptor<?>> clazz) {
+		ObjectScope.of(clazz);
 		Set<Class<?>> targets = interceptorTypes.put(clazz);
+		clearInvocationPlans(targets);
 		logMapping("PUT INTERCEPTOR:", clazz, targets);
 	}
 
 	@Override
 	public void putFilter(Class<? extends Filter> clazz) {
+		ObjectScope.of(clazz);
 		filterTypes.add(clazz);
+		clearInvocationPlans();
 		logMappingSingle("PUT FILTER:", clazz, null);
 	}
 	
+	/**
+	 * Put handlers, interceptors and filters with one validation and one publication per repository.
+	 * <br>Handlers are validated before putting of interceptors and filters.
+	 */
+	public void putAll(
+			Collection<? extends Class<?>> handlers, 
+			Collection<? extends Class<?>> interceptors, 
+			Collection<? extends Class<?>> filters) 
+			throws NoMappingAnnotationException, NotOneHandlerException {
+		
+		checkScopes(handlers);
+		checkScopes(interceptors);
+		checkScopes(filters);
+		
+		HashSet<Class<?>> changedTargets = new HashSet<Class<?>>();
+		boolean filtersChanged = false;
+		
+		//every repository publishes its types at once:
+		//if next types are invalid plans of already published ones are cleared anyway
+		try {
+			if( ! Util.isEmpty(handlers)){
+				Map<Class<?>, Set<Class<?>>> added = handlerTypes.putAll(handlers);
+				logMappings("PUT HANDLER:", added, changedTargets);
+			}
+			
+			if( ! Util.isEmpty(interceptors)){
+				Map<Class<?>, Set<Class<?>>> added = interceptorTypes.putAll(interceptors);
+				logMappings("PUT INTERCEPTOR:", added, changedTargets);
+			}
+			
+			if( ! Util.isEmpty(filters)){
+				filtersChanged = true;
+				filterTypes.addAll(filters);
+				for(Class<?> clazz : filters){
+					logMappingSingle("PUT FILTER:", clazz, null);
+				}
+			}
+		}finally {
+			if(filtersChanged){
+				clearInvocationPlans();
+			} else {
+				clearInvocationPlans(changedTargets);
+			}
+		}
+	}
+	
+	private void checkScopes(Collection<? extends Class<?>> types){
+		if(types == null) return;
+		for(Class<?> type : types){
+			ObjectScope.of(type);
+		}
+	}
+	
 	
 	@Override
 	public void scanAndPut(Class<?> clazz){
@@ -96,134 +187,217 @@ public class DeployServiceImpl implements DeployService, ResourseService {
 
 	
 	@Override
-	@SuppressWarnings({ "rawtypes", "unchecked" })
 	public void scanAndPut(String packageName) {
 		
 		log.info("Scanning and putting classes...");
 		
 		
-		Class<?> scannerType = config.getConfig(new ClassScannerKey());
+		Class<?> scannerType = classScanner.get();
 		ClassScanner scanner = CoreUtil.createInstance(scannerType);
-	    Set<Class<?>> mapperSet = scanner.getClasses(packageName, InvocationObject.class);
+		if(scanner instanceof DefaultClassScanner){
+			((DefaultClassScanner)scanner).setParallelism(scanParallelism.get());
+		}
+	    Set<Class<?>> mapperSet = getClasses(scanner, packageName, InvocationObject.class);
 	    if(mapperSet == null){
 	    	mapperSet = Collections.emptySet();
 	    }
 	    
-	    int totalFilters = 0;
-	    int totalInterceptors = 0;
-	    int totalHandlers = 0;
-	    for (Class candidatClass : mapperSet) {
-	    	
-	    	if(Filter.class.isAssignableFrom(candidatClass)){
-    			putFilter(candidatClass);
-    			totalFilters++;
-    			continue;
-    		}
-	    	
-	    	Mapping mapping = (Mapping)candidatClass.getAnnotation(Mapping.class);
-	    	if(mapping != null){
-	    		if(Handler.class.isAssignableFrom(candidatClass)){
-		    		putHandler(candidatClass);
-		    		totalHandlers++;
-	    		}
-	    		else if(Interceptor.class.isAssignableFrom(candidatClass)){
-	    			putInterceptor(candidatClass);
-	    			totalInterceptors++;
-	    		}
-	    	}
-	    }
+	    SimpleHandlerRegistry found = SimpleHandlerRegistry.of(mapperSet);
+	    
+	    putAll(found.handlers, found.interceptors, found.filters);
 	    
-	    log.info("Done. [filters:"+totalFilters
-	    		+", interceptors:"+totalInterceptors
-	    		+", handlers:"+totalHandlers+"]");
+	    log.info("Done. [filters:"+found.filters.size()
+	    		+", interceptors:"+found.interceptors.size()
+	    		+", handlers:"+found.handlers.size()+"]");
 	}
-
 	
-	@Override
-	public Handler<?> getHandler(Action<?, ?> action) {
+	/**
+	 * Scan classes or load them from {@link ScanCache} if binaries are not changed
+	 */
+	private Set<Class<?>> getClasses(ClassScanner scanner, String packageName, Class<?> parentClass){
 		
-		Class<?> handlerType = getHandlerType(action);
-		Handler<?> out = null;
+		if( ! scanCacheEnabled.get() || ! (scanner instanceof CacheableClassScanner)){
+			return scanner.getClasses(packageName, parentClass);
+		}
+		
+		CacheableClassScanner cacheable = (CacheableClassScanner) scanner;
+		String dirPath = scanCacheDir.get();
+		File dir = dirPath != null? new File(dirPath) : cacheable.getCacheDir();
+		if(dir == null){
+			return scanner.getClasses(packageName, parentClass);
+		}
 		
+		ScanCache cache = new ScanCache(dir);
+		String fingerprint = null;
 		try {
-			Object newInstance = handlerType.newInstance();
-			out = (Handler<?>) newInstance;
+			fingerprint = ScanCache.getFingerprint(cacheable.getSources(packageName));
+			if(fingerprint != null){
+				Set<Class<?>> cached = cache.load(packageName, parentClass, fingerprint, cacheable.getClassLoader());
+				if(cached != null){
+					log.info("Classes are loaded from scan cache: "+packageName);
+					return cached;
+				}
+			}
 		}catch (Exception e) {
-			throw new InvalidStateException("can't create handler by "+handlerType, e);
+			log.warn("can't load scan cache for "+packageName, e);
 		}
 		
+		Set<Class<?>> out = scanner.getClasses(packageName, parentClass);
+		
+		if(fingerprint != null && out != null){
+			try {
+				cache.save(packageName, parentClass, fingerprint, out);
+			}catch (Exception e) {
+				log.warn("can't save scan cache for "+packageName, e);
+			}
+		}
 		return out;
 	}
 	
-	private Class<?> getHandlerType(Action<?,?> action){
+	
+	@Override
+	public void putRegistry(HandlerRegistry registry) {
 		
-		Class<?> clazz = action.getClass();
-		Set<Class<?>> handlers = handlerTypes.getTypes(clazz);
+		log.info("Putting classes from registry "+registry.getClass().getName()+"...");
 		
-		if(Util.isEmpty(handlers)){
-			throw new HandlerNotFoundException(action);
-		}
+		List<Class<?>> filters = registry.getFilters();
+		List<Class<?>> interceptors = registry.getInterceptors();
+		List<Class<?>> handlers = registry.getHandlers();
 		
-		if(handlers.size() > 1){
-			throw new NotOneHandlerException(action, handlers);
-		}
+		putAll(handlers, interceptors, filters);
 		
-		Class<?> out = handlers.iterator().next();
-		return out;
+		log.info("Done. [filters:"+size(filters)
+				+", interceptors:"+size(interceptors)
+				+", handlers:"+size(handlers)+"]");
+	}
+	
+	private static int size(Collection<?> c){
+		return c == null? 0 : c.size();
 	}
 
+	
 	@Override
-	public List<Filter> getFilters() {
+	public InvocationPlan getInvocationPlan(Action<?, ?> action) {
 		
-		ArrayList<Filter> out = new ArrayList<Filter>();
+		Class<?> actionType = action.getClass();
 		
-		for(Class<?> filterType : filterTypes){
-			try {
-				Object newInstance = filterType.newInstance();
-				Filter filter = (Filter) newInstance;
-				out.add(filter);
-			}catch (Exception e) {
-				throw new InvalidStateException("can't create filter by "+filterType, e);
+		//read map before resolving: plan from old deploy state goes to old map
+		ConcurrentHashMap<Class<?>, InvocationPlan> cache = plans;
+		InvocationPlan plan = cache.get(actionType);
+		if(plan == null){
+			plan = createInvocationPlan(action);
+			InvocationPlan prev = cache.putIfAbsent(actionType, plan);
+			if(prev != null){
+				plan = prev;
 			}
 		}
+		return plan;
+	}
+	
+	@Override
+	public void clearInvocationPlans() {
+		synchronized (plansLock) {
+			plans = new ConcurrentHashMap<Class<?>, InvocationPlan>();
+		}
+	}
+	
+	/**
+	 * Drop only plans of action types affected by changed targets.
+	 * <br>Copy and publish are under the lock of all plans writers, 
+	 * so a concurrent deploy can't publish the copy with plans dropped here.
+	 */
+	private void clearInvocationPlans(Set<Class<?>> changedTargets) {
 		
-		Collections.sort(out, orderComparator);
+		if(Util.isEmpty(changedTargets)){
+			return;
+		}
 		
-		return out;
+		synchronized (plansLock) {
+			ConcurrentHashMap<Class<?>, InvocationPlan> cur = plans;
+			ConcurrentHashMap<Class<?>, InvocationPlan> next = new ConcurrentHashMap<Class<?>, InvocationPlan>();
+			for(Entry<Class<?>, InvocationPlan> entry : cur.entrySet()){
+				if( ! TypesRepositoryImpl.isAffected(entry.getKey(), changedTargets)){
+					next.put(entry.getKey(), entry.getValue());
+				}
+			}
+			plans = next;
+		}
 	}
 	
-	@Override
-	public List<Interceptor<?>> getInterceptors(Action<?, ?> action) {
+	private InvocationPlan createInvocationPlan(Action<?, ?> action){
 		
-		Class<?> clazz = action.getClass();
-		Set<Class<?>> set = interceptorTypes.getTypes(clazz);
+		Class<?> actionType = action.getClass();
+		Class<?> handlerType = getHandlerType(action);
 		
-		ArrayList<Interceptor<?>> out = new ArrayList<Interceptor<?>>();
+		ArrayList<Class<?>> interceptors = new ArrayList<Class<?>>(interceptorTypes.getTypes(actionType));
+		Collections.sort(interceptors, orderComparator);
 		
-		for(Class<?> interceptorType : set){
-			try {
-				Object newInstance = interceptorType.newInstance();
-				Interceptor<?> interceptor = (Interceptor<?>) newInstance;
-				out.add(interceptor);
-			}catch (Exception e) {
-				throw new InvalidStateException("can't create interceptor by "+interceptorType, e);
-			}
+		ArrayList<Class<?>> filters = new ArrayList<Class<?>>(filterTypes);
+		Collections.sort(filters, orderComparator);
+		
+		int depthMaxSize = invokeDepthMaxSize.get();
+		
+		return new InvocationPlan(actionType, handlerType, interceptors, filters, depthMaxSize);
+	}
+	
+	private Class<?> getHandlerType(Action<?,?> action){
+		
+		Class<?> clazz = action.getClass();
+		Set<Class<?>> handlers = handlerTypes.getTypes(clazz);
+		
+		if(Util.isEmpty(handlers)){
+			handlers = resolveHandlers(clazz);
 		}
 		
+		if(Util.isEmpty(handlers)){
+			throw new HandlerNotFoundException(action);
+		}
 		
-		Collections.sort(out, orderComparator);
+		if(handlers.size() > 1){
+			throw new NotOneHandlerException(action, handlers);
+		}
 		
+		Class<?> out = handlers.iterator().next();
 		return out;
 	}
-
+	
+	/**
+	 * Put types from {@link HandlerResolver} for action type without handler
+	 */
+	private Set<Class<?>> resolveHandlers(Class<?> actionType){
+		
+		HandlerResolver resolver = handlerResolver.get();
+		if(resolver == null){
+			return null;
+		}
+		
+		synchronized (resolveLock) {
+			
+			//resolved by other thread
+			Set<Class<?>> handlers = handlerTypes.getTypes(actionType);
+			if( ! Util.isEmpty(handlers)){
+				return handlers;
+			}
+			
+			HandlerRegistry registry = resolver.resolve(actionType);
+			if(registry == null){
+				return null;
+			}
+			
+			log.info("Resolved types for "+actionType.getName()+" by "+resolver.getClass().getSimpleName());
+			putAll(registry.getHandlers(), registry.getInterceptors(), registry.getFilters());
+			resolver.onPut(actionType, registry);
+			
+			return handlerTypes.getTypes(actionType);
+		}
+	}
+	
 	@Override
 	public void setHandlerTypes(
 			Collection<Class<? extends Handler<?>>> handlerTypes)
 			throws NoMappingAnnotationException, NotOneHandlerException {
 		if(handlerTypes == null) return;
-		for (Class<? extends Handler<?>> clazz : handlerTypes) {
-			putHandler(clazz);
-		}
+		putAll(handlerTypes, null, null);
 	}
 
 	@Override
@@ -231,9 +405,7 @@ public class DeployServiceImpl implements DeployService, ResourseService {
 			Collection<Class<? extends Interceptor<?>>> interceptorTypes)
 			throws NoMappingAnnotationException {
 		if(interceptorTypes == null) return;
-		for (Class<? extends Interceptor<?>> clazz : interceptorTypes) {
-			putInterceptor(clazz);
-		}
+		putAll(null, interceptorTypes, null);
 	}
 
 	@Override
@@ -254,6 +426,13 @@ public class DeployServiceImpl implements DeployService, ResourseService {
 	}
 	
 	
+	private void logMappings(String preffix, Map<Class<?>, Set<Class<?>>> added, Set<Class<?>> changedTargets) {
+		for(Entry<Class<?>, Set<Class<?>>> entry : added.entrySet()){
+			logMapping(preffix, entry.getKey(), entry.getValue());
+			changedTargets.addAll(entry.getValue());
+		}
+	}
+	
 	private void logMapping(String preffix, Class<?> handler, Set<Class<?>> targets) {
 		for (Class<?> target : targets) {
 			logMappingSingle(preffix, handler, target);
@@ -0,0 +1,57 @@
+/*
+ * Copyright 2012 Evgeny Dolganov (evgenij.dolganov@gmail.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package easydroid.gf.core.deploy;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Resolved wiring of the concrete <tt>Action</tt> type:
+ * handler type, ordered interceptor types, ordered filter types and invoke depth limit.
+ * <br>Plan is immutable. It is built once on first invocation of the action type
+ * and dropped when deploy state or config is changed.
+ */
+public class InvocationPlan {
+	
+	public final Class<?> actionType;
+	public final Class<?> handlerType;
+	public final List<Class<?>> interceptorTypes;
+	public final List<Class<?>> filterTypes;
+	public final int depthMaxSize;
+	
+	public InvocationPlan(Class<?> actionType, 
+			Class<?> handlerType, 
+			List<Class<?>> interceptorTypes,
+			List<Class<?>> filterTypes,
+			int depthMaxSize) {
+		super();
+		this.actionType = actionType;
+		this.handlerType = handlerType;
+		this.interceptorTypes = Collections.unmodifiableList(interceptorTypes);
+		this.filterTypes = Collections.unmodifiableList(filterTypes);
+		this.depthMaxSize = depthMaxSize;
+	}
+
+	@Override
+	public String toString() {
+		return getClass().getSimpleName()+" [actionType=" + actionType 
+				+ ", handlerType=" + handlerType
+				+ ", interceptorTypes=" + interceptorTypes 
+				+ ", filterTypes=" + filterTypes 
+				+ ", depthMaxSize=" + depthMaxSize + "]";
+	}
+
+}
@@ -0,0 +1,73 @@
+/*
+ * Copyright 2012 Evgeny Dolganov (evgenij.dolganov@gmail.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package easydroid.gf.core.deploy;
+
+import easydroid.gf.annotation.Pooled;
+import easydroid.gf.annotation.Shared;
+import easydroid.gf.exception.deploy.InvalidScopeException;
+import easydroid.gf.extra.invocation.reader.HasInvocationReader;
+
+/**
+ * Lifecycle of <tt>Handler</tt>, <tt>Interceptor</tt>, <tt>Filter</tt> objects.
+ * 
+ * @see Shared
+ * @see Pooled
+ */
+public enum ObjectScope {
+	
+	/**
+	 * New object for every invocation (default)
+	 */
+	NEW,
+	
+	/**
+	 * One object for all invocations
+	 */
+	SHARED,
+	
+	/**
+	 * Object from bounded pool of the type
+	 */
+	POOLED;
+	
+	
+	public static ObjectScope of(Class<?> type) throws InvalidScopeException {
+		
+		boolean shared = type.isAnnotationPresent(Shared.class);
+		Pooled pooled = type.getAnnotation(Pooled.class);
+		
+		if(shared && pooled != null){
+			throw new InvalidScopeException(type, "can't be Shared and Pooled at the same time");
+		}
+		
+		if(shared){
+			if(HasInvocationReader.class.isAssignableFrom(type)){
+				throw new InvalidScopeException(type, "Shared object can't have InvocationReader");
+			}
+			return SHARED;
+		}
+		
+		if(pooled != null){
+			if(pooled.value() < 1){
+				throw new InvalidScopeException(type, "pool size must be positive");
+			}
+			return POOLED;
+		}
+		
+		return NEW;
+	}
+
+}
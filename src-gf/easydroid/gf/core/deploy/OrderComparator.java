@@ -26,8 +26,8 @@ public class OrderComparator implements Comparator<Object>{
 		int bOrder = Order.DEFAULT_ORDER;
 		
 		//by annotation
-		Order aOrderAnn = a.getClass().getAnnotation(Order.class);
-		Order bOrderAnn = b.getClass().getAnnotation(Order.class);
+		Order aOrderAnn = getType(a).getAnnotation(Order.class);
+		Order bOrderAnn = getType(b).getAnnotation(Order.class);
 		if(aOrderAnn != null){
 			aOrder = aOrderAnn.value();
 		}
@@ -37,5 +37,10 @@ public class OrderComparator implements Comparator<Object>{
 		
 		return (aOrder<bOrder ? -1 : (aOrder==bOrder ? 0 : 1));
 	}
+	
+	private Class<?> getType(Object ob){
+		//compare types or instances
+		return ob instanceof Class? (Class<?>)ob : ob.getClass();
+	}
 
 }
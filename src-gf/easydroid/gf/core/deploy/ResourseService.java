@@ -18,20 +18,15 @@ package easydroid.gf.core.deploy;
 import java.util.List;
 
 import easydroid.gf.Action;
-import easydroid.gf.Filter;
-import easydroid.gf.Handler;
-import easydroid.gf.Interceptor;
 import easydroid.gf.exception.invoke.HandlerNotFoundException;
 import easydroid.gf.exception.invoke.NotOneHandlerException;
 import easydroid.gf.extra.invocation.InvocationObjectInitializer;
 
 public interface ResourseService {
 	
-	Handler<?> getHandler(Action<?, ?> action) throws HandlerNotFoundException, NotOneHandlerException;
-
-	List<Filter> getFilters();
-
-	List<Interceptor<?>> getInterceptors(Action<?, ?> action);
+	InvocationPlan getInvocationPlan(Action<?, ?> action) throws HandlerNotFoundException, NotOneHandlerException;
+	
+	void clearInvocationPlans();
 	
 	List<InvocationObjectInitializer> getInitializers();
 
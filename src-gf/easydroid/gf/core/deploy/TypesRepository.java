@@ -15,6 +15,8 @@
  */
 package easydroid.gf.core.deploy;
 
+import java.util.Collection;
+import java.util.Map;
 import java.util.Set;
 
 import easydroid.gf.exception.deploy.NoMappingAnnotationException;
@@ -28,6 +30,16 @@ public interface TypesRepository {
 	
 	Set<Class<?>> put(Class<?> handler) throws NoMappingAnnotationException, NotOneHandlerException;
 	
+	/**
+	 * Put all types with one validation and one publication of the new mapping.
+	 * <br>If some type is invalid nothing is put.
+	 * @return [type - added targets]
+	 */
+	Map<Class<?>, Set<Class<?>>> putAll(Collection<? extends Class<?>> handlers) throws NoMappingAnnotationException, NotOneHandlerException;
+	
+	/**
+	 * @return immutable set of types for the target and its super types
+	 */
 	Set<Class<?>> getTypes(Class<?> target);
 
 }
@@ -15,14 +15,17 @@
  */
 package easydroid.gf.core.deploy;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.Map;
+import java.util.Map.Entry;
 import java.util.Set;
-import java.util.concurrent.locks.Lock;
-import java.util.concurrent.locks.ReadWriteLock;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.concurrent.ConcurrentHashMap;
 
 import easydroid.gf.annotation.Mapping;
 import easydroid.gf.exception.deploy.DeployException;
@@ -32,152 +35,136 @@ import easydroid.util.Util;
 import easydroid.util.log.LogFactory;
 import easydroid.util.log.Logger;
 
+/**
+ * Mapping of targets to types.
+ * <br>All state is in immutable {@link Snapshot}, writes publish a new one.
+ * So reads take no locks and return shared immutable sets.
+ */
 public class TypesRepositoryImpl implements TypesRepository {
 	
 	private static Logger log = LogFactory.getLog(TypesRepositoryImpl.class);
 	
-	//[target - [current handlers]]
-	private HashMap<Class<?>, Set<Class<?>>> initialMapping = new HashMap<Class<?>, Set<Class<?>>>();
-	
-	//[target - [all handlers (from cur, superclass, interfaces)]]
-	private HashMap<Class<?>, Set<Class<?>>> targetCache = new HashMap<Class<?>, Set<Class<?>>>();
-	
-	private boolean isOneHandler = false;
+	private static final Set<Class<?>> EMPTY_SET = Collections.emptySet();
 	
-	private ReadWriteLock rw = new ReentrantReadWriteLock();
-	private Lock readLock = rw.readLock();
-	private Lock writeLock = rw.writeLock();
+	private volatile Snapshot snapshot = new Snapshot(Collections.<Class<?>, Set<Class<?>>>emptyMap(), false);
 	
 	@Override
 	public Set<Class<?>> put(Class<?> handler) throws DeployException {
-		writeLock.lock();
-		try {
-			
-			HashSet<Class<?>> out = new HashSet<Class<?>>();
+		ArrayList<Class<?>> list = new ArrayList<Class<?>>(1);
+		list.add(handler);
+		return putAll(list).get(handler);
+	}
+	
+	@Override
+	public synchronized Map<Class<?>, Set<Class<?>>> putAll(Collection<? extends Class<?>> handlers) throws DeployException {
+		
+		LinkedHashMap<Class<?>, Set<Class<?>>> out = new LinkedHashMap<Class<?>, Set<Class<?>>>();
+		
+		Snapshot cur = snapshot;
+		HashMap<Class<?>, Set<Class<?>>> newMap = new HashMap<Class<?>, Set<Class<?>>>(cur.mapping);
+		HashSet<Class<?>> changedTargets = new HashSet<Class<?>>();
+		
+		for(Class<?> handler : handlers){
 			
 			Mapping annotation = handler.getAnnotation(Mapping.class);
 			if(Util.isEmpty(annotation)){
 				throw new NoMappingAnnotationException(handler);
 			}
 			
-			HashMap<Class<?>, Set<Class<?>>> newMap = new HashMap<Class<?>, Set<Class<?>>>(initialMapping);
+			HashSet<Class<?>> added = new HashSet<Class<?>>();
 			Class<?>[] targets = annotation.value();
 			for(Class<?> target : targets){
-				boolean added = putToMapping(newMap, target, handler);
-				if(added){
-					out.add(target);
+				if(putToMapping(newMap, target, handler)){
+					added.add(target);
 				}
 			}
-			
-			if(isOneHandler){
-				checkForManyHandlers(newMap);
-			}
-			
-			//if ok: replace map, clear cache
-			initialMapping = newMap;
-			targetCache = new HashMap<Class<?>, Set<Class<?>>>();
-			
+			changedTargets.addAll(added);
+			out.put(handler, added);
+		}
+		
+		if(changedTargets.isEmpty()){
 			return out;
-			
-		}finally {
-			writeLock.unlock();
 		}
+		
+		if(cur.isOneHandler){
+			checkForManyHandlers(newMap, changedTargets);
+		}
+		
+		//if ok: publish new mapping with unaffected part of cache
+		Snapshot next = new Snapshot(Collections.unmodifiableMap(newMap), cur.isOneHandler);
+		for(Entry<Class<?>, Set<Class<?>>> entry : cur.targetCache.entrySet()){
+			if( ! isAffected(entry.getKey(), changedTargets)){
+				next.targetCache.put(entry.getKey(), entry.getValue());
+			}
+		}
+		snapshot = next;
+		
+		return out;
 	}
 	
+	/**
+	 * Is the target's resolution depends on some of changed targets (target itself or its super types)
+	 */
+	static boolean isAffected(Class<?> target, Set<Class<?>> changedTargets){
+		for(Class<?> changed : changedTargets){
+			if(changed.isAssignableFrom(target)){
+				return true;
+			}
+		}
+		return false;
+	}
 	
+	
+	/**
+	 * @return shared immutable set
+	 */
 	@Override
 	public Set<Class<?>> getTypes(Class<?> target) {
 		
-		//check-create
-		readLock.lock();
-		if ( ! hasInTargetCache(target)) {
-			readLock.unlock();
-			writeLock.lock();
-		    try {
-		    	if ( ! hasInTargetCache(target)) {
-		    		putToTargetCache(target);
-		    	}
-		    	readLock.lock();
-		    } finally {
-		    	writeLock.unlock();
-		    }
-		}
-
-	    //read
-		try {
-			Set<Class<?>> out = getFromTargetCache(target);
-			return out;
-		} finally {
-			 readLock.unlock();
+		Snapshot cur = snapshot;
+		Set<Class<?>> out = cur.targetCache.get(target);
+		if(out == null){
+			Set<Class<?>> all = getAllHandlers(cur.mapping, target);
+			out = all.isEmpty()? EMPTY_SET : Collections.unmodifiableSet(all);
+			Set<Class<?>> prev = cur.targetCache.putIfAbsent(target, out);
+			if(prev != null){
+				out = prev;
+			}
 		}
+		return out;
 	}
 	
 	@Override
-	public void setOneHandlerOnly(boolean val) {
-		writeLock.lock();
-		try {
-			
-			if(val && !isOneHandler){
-				checkForManyHandlers(initialMapping);
-			}
-			
-			this.isOneHandler = val;
-			
-		}finally {
-			writeLock.unlock();
+	public synchronized void setOneHandlerOnly(boolean val) {
+		
+		Snapshot cur = snapshot;
+		if(val && !cur.isOneHandler){
+			checkForManyHandlers(cur.mapping, null);
 		}
+		
+		snapshot = new Snapshot(cur.mapping, val);
 	}
 
 
 	@Override
 	public boolean isOneHandlerOnly() {
-		readLock.lock();
-		try {
-			
-			return isOneHandler;
-			
-		} finally {
-			readLock.unlock();
-		}
-		
+		return snapshot.isOneHandler;
 	}
 
 	
 	@Deprecated
 	Map<Class<?>, Set<Class<?>>> getInitalMapping(){
-		readLock.lock();
-		try {
-			return new HashMap<Class<?>, Set<Class<?>>>(initialMapping);
-		} finally {
-			readLock.unlock();
-		}
+		return new HashMap<Class<?>, Set<Class<?>>>(snapshot.mapping);
 	}
 	
 	@Deprecated
 	Map<Class<?>, Set<Class<?>>> getTargetCache(){
-		readLock.lock();
-		try {
-			return new HashMap<Class<?>, Set<Class<?>>>(targetCache);
-		} finally {
-			readLock.unlock();
-		}
+		return new HashMap<Class<?>, Set<Class<?>>>(snapshot.targetCache);
 	}
 	
 
 
-
-	private boolean hasInTargetCache(Class<?> target) {
-		return targetCache.containsKey(target);
-	}
-	
-	private void putToTargetCache(Class<?> target) {
-		
-		Set<Class<?>> allHandlers = getAllHandlers(initialMapping, target);
-		targetCache.put(target, allHandlers);
-	}
-
-
-	private Set<Class<?>> getAllHandlers(HashMap<Class<?>, Set<Class<?>>> map, Class<?> target) {
+	private Set<Class<?>> getAllHandlers(Map<Class<?>, Set<Class<?>>> map, Class<?> target) {
 		
 		HashSet<Class<?>> allHandlers = new HashSet<Class<?>>();
 		
@@ -206,38 +193,34 @@ public class TypesRepositoryImpl implements TypesRepository {
 		}
 		return allHandlers;
 	}
-	
-	private Set<Class<?>> getFromTargetCache(Class<?> target) {
-		Set<Class<?>> original = targetCache.get(target);
-		if(original == null){
-			original = new HashSet<Class<?>>();
-		}
-		HashSet<Class<?>> copy = new HashSet<Class<?>>(original);
-		return copy;
-	}
 
 
 	private boolean putToMapping(HashMap<Class<?>, Set<Class<?>>> map, Class<?> target, Class<?> handler) {
 		Set<Class<?>> set = map.get(target);
-		if(set == null){
-			set = new HashSet<Class<?>>();
-			map.put(target, set);
-		}
-		if(set.contains(handler)){
+		if(set != null && set.contains(handler)){
 			log.warn("mapping already contains "+handler+" for "+target);
 			return false;
-		} else {
-			set.add(handler);
-			return true;
 		}
+		
+		//copy on write: sets of published snapshot are not changed
+		HashSet<Class<?>> newSet = set == null? new HashSet<Class<?>>() : new HashSet<Class<?>>(set);
+		newSet.add(handler);
+		map.put(target, Collections.unmodifiableSet(newSet));
+		return true;
 	}
 
 
-	private void checkForManyHandlers(HashMap<Class<?>, Set<Class<?>>> map) {
+	/**
+	 * @param changedTargets check only targets affected by them or all if null
+	 */
+	private void checkForManyHandlers(Map<Class<?>, Set<Class<?>>> map, Set<Class<?>> changedTargets) {
 		
 		Set<Class<?>> targets = map.keySet();
 		
 		for(Class<?> target : targets){
+			if(changedTargets != null && ! isAffected(target, changedTargets)){
+				continue;
+			}
 			Set<Class<?>> all = getAllHandlers(map, target);
 			if(all.size() > 1){
 				throw new NotOneHandlerException(target, all);
@@ -245,7 +228,23 @@ public class TypesRepositoryImpl implements TypesRepository {
 		}
 	}
 	
-
-
+	
+	
+	private static class Snapshot {
+		
+		//[target - [current handlers]], immutable
+		final Map<Class<?>, Set<Class<?>>> mapping;
+		
+		final boolean isOneHandler;
+		
+		//[target - [all handlers (from cur, superclass, interfaces)]]
+		final ConcurrentHashMap<Class<?>, Set<Class<?>>> targetCache = new ConcurrentHashMap<Class<?>, Set<Class<?>>>();
+		
+		Snapshot(Map<Class<?>, Set<Class<?>>> mapping, boolean isOneHandler) {
+			this.mapping = mapping;
+			this.isOneHandler = isOneHandler;
+		}
+		
+	}
 
 }
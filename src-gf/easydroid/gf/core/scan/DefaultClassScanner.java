@@ -15,12 +15,27 @@
  */
 package easydroid.gf.core.scan;
 
+import java.io.File;
+import java.util.List;
 import java.util.Set;
 
 import easydroid.gf.core.util.ScanUtil;
-import easydroid.gf.extra.scan.ClassScanner;
+import easydroid.gf.extra.scan.CacheableClassScanner;
 
-public class DefaultClassScanner implements ClassScanner {
+public class DefaultClassScanner implements CacheableClassScanner {
+	
+	private int parallelism = 1;
+	
+	public int getParallelism() {
+		return parallelism;
+	}
+	
+	/**
+	 * @see ScanUtil#setParallelism(int)
+	 */
+	public void setParallelism(int parallelism) {
+		this.parallelism = parallelism;
+	}
 
 	
 	@SuppressWarnings({ "rawtypes", "unchecked" })
@@ -28,12 +43,29 @@ public class DefaultClassScanner implements ClassScanner {
 	public Set<Class<?>> getClasses(String packageRoot, Class<?> parentClass) {
 		
 		ScanUtil<Class> scanUtil = new ScanUtil<Class>();
+		scanUtil.setParallelism(parallelism);
 	    scanUtil.find(new ScanUtil.IsA(parentClass), packageRoot);
 	    Set set = scanUtil.getClasses();
 	    
 		return set;
 	}
 	
+	@Override
+	public List<File> getSources(String packageRoot) {
+		return new ScanUtil<Class<?>>().findJarFiles(packageRoot);
+	}
+	
+	@Override
+	public ClassLoader getClassLoader() {
+		return new ScanUtil<Class<?>>().getClassLoader();
+	}
 	
+	/**
+	 * @return null: results are cached only with {@link easydroid.gf.key.scan.ScanCacheDir}
+	 */
+	@Override
+	public File getCacheDir() {
+		return null;
+	}
 
 }
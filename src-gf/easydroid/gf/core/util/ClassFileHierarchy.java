@@ -0,0 +1,168 @@
+/*
+ * Copyright 2012 Evgeny Dolganov (evgenij.dolganov@gmail.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package easydroid.gf.core.util;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.annotation.Annotation;
+import java.lang.annotation.Inherited;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Checks of types by class files from <tt>ClassLoader</tt> resources without loading of classes.
+ * <br>Read class files are cached, so use one instance per scanning. The class is thread safe.
+ * <br>Every check returns <tt>TRUE</tt>, <tt>FALSE</tt> or <tt>null</tt> 
+ * if some class file of the hierarchy can't be read: such type must be checked by loaded class.
+ * 
+ * @see ClassFileInfo
+ */
+public class ClassFileHierarchy {
+	
+	private static final Object NOT_FOUND = new Object();
+	private static final String OBJECT_NAME = "java/lang/Object";
+	
+	private final ClassLoader loader;
+	private final ConcurrentHashMap<String, Object> infos = new ConcurrentHashMap<String, Object>();
+	
+	public ClassFileHierarchy(ClassLoader loader) {
+		this.loader = loader;
+	}
+	
+	/**
+	 * Internal name of type: "java/lang/Object" for <tt>java.lang.Object</tt>
+	 */
+	public static String getInternalName(Class<?> type){
+		return type.getName().replace('.', '/');
+	}
+	
+	/**
+	 * Descriptor of type: "Ljava/lang/Object;" for <tt>java.lang.Object</tt>
+	 */
+	public static String getDescriptor(Class<?> type){
+		return "L"+getInternalName(type)+";";
+	}
+	
+	
+	/**
+	 * @param name internal name of class
+	 * @return info or null if there is no readable class file
+	 */
+	public ClassFileInfo getInfo(String name){
+		Object cached = infos.get(name);
+		if(cached == null){
+			ClassFileInfo info = readInfo(name);
+			cached = info == null? NOT_FOUND : info;
+			infos.putIfAbsent(name, cached);
+		}
+		return cached == NOT_FOUND? null : (ClassFileInfo)cached;
+	}
+	
+	/**
+	 * Put info of already read class file, for example of a scanned file
+	 */
+	public void putInfo(ClassFileInfo info){
+		infos.putIfAbsent(info.name, info);
+	}
+	
+	/**
+	 * Analog of <tt>parent.isAssignableFrom(type)</tt>
+	 * @param parentName internal name of parent type
+	 */
+	public Boolean isSubtype(ClassFileInfo info, String parentName){
+		
+		if(parentName.equals(info.name) || parentName.equals(OBJECT_NAME)){
+			return Boolean.TRUE;
+		}
+		
+		boolean unknown = false;
+		
+		if(info.superName != null){
+			Boolean result = isSubtype(info.superName, parentName);
+			if(result == null) unknown = true;
+			else if(result) return Boolean.TRUE;
+		}
+		
+		for (String interfaceName : info.interfaces) {
+			Boolean result = isSubtype(interfaceName, parentName);
+			if(result == null) unknown = true;
+			else if(result) return Boolean.TRUE;
+		}
+		
+		return unknown? null : Boolean.FALSE;
+	}
+	
+	private Boolean isSubtype(String name, String parentName){
+		
+		if(parentName.equals(name)){
+			return Boolean.TRUE;
+		}
+		
+		//platform types don't extend other types
+		if(name.startsWith("java/") && ! parentName.startsWith("java/")){
+			return Boolean.FALSE;
+		}
+		
+		ClassFileInfo info = getInfo(name);
+		return info == null? null : isSubtype(info, parentName);
+	}
+	
+	/**
+	 * Analog of <tt>type.isAnnotationPresent(annotation)</tt>:
+	 * annotations with {@link Inherited} are searched in super classes too.
+	 */
+	public Boolean hasAnnotation(ClassFileInfo info, Class<? extends Annotation> annotation){
+		
+		String descriptor = getDescriptor(annotation);
+		boolean inherited = annotation.isAnnotationPresent(Inherited.class);
+		
+		ClassFileInfo cur = info;
+		while(cur != null){
+			if(cur.hasAnnotation(descriptor)){
+				return Boolean.TRUE;
+			}
+			if( ! inherited || cur.superName == null || cur.superName.startsWith("java/")){
+				return Boolean.FALSE;
+			}
+			cur = getInfo(cur.superName);
+		}
+		return null;
+	}
+	
+	
+	private ClassFileInfo readInfo(String name){
+		if(loader == null){
+			return null;
+		}
+		InputStream is = loader.getResourceAsStream(name+".class");
+		if(is == null){
+			return null;
+		}
+		try {
+			return ClassFileInfo.read(new BufferedInputStream(is));
+		}catch (Exception e) {
+			//broken class file
+			return null;
+		}finally {
+			try {
+				is.close();
+			}catch (IOException e) {
+				//ok
+			}
+		}
+	}
+
+}
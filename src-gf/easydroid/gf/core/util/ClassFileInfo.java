@@ -0,0 +1,213 @@
+/*
+ * Copyright 2012 Evgeny Dolganov (evgenij.dolganov@gmail.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package easydroid.gf.core.util;
+
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Header of a class file: access flags, name, super class, interfaces and 
+ * runtime visible class annotations. It's read from the constant pool without loading of the class.
+ * <br>Names are in internal form ("java/lang/Object"), annotations are descriptors ("Ljava/lang/Deprecated;").
+ * 
+ * @see ClassFileHierarchy
+ */
+public class ClassFileInfo {
+	
+	public static final int ACC_INTERFACE = 0x0200;
+	public static final int ACC_ABSTRACT = 0x0400;
+	
+	private static final int MAGIC = 0xCAFEBABE;
+	private static final String ANNOTATIONS_ATTRIBUTE = "RuntimeVisibleAnnotations";
+	
+	public int access;
+	public String name;
+	/** null for java/lang/Object */
+	public String superName;
+	public String[] interfaces;
+	public Set<String> annotations;
+	
+	public boolean isAbstract(){
+		return (access & (ACC_ABSTRACT | ACC_INTERFACE)) != 0;
+	}
+	
+	public boolean hasAnnotation(String descriptor){
+		return annotations.contains(descriptor);
+	}
+	
+	@Override
+	public String toString() {
+		return name;
+	}
+	
+	
+	/**
+	 * Read class file header. The stream is not closed.
+	 * @return info or null if the stream is not a class file
+	 */
+	public static ClassFileInfo read(InputStream is) throws IOException {
+		
+		DataInputStream in = new DataInputStream(is);
+		if(in.readInt() != MAGIC){
+			return null;
+		}
+		in.readUnsignedShort(); //minor version
+		in.readUnsignedShort(); //major version
+		
+		//constant pool: keep only utf8 strings and class name indexes
+		int poolSize = in.readUnsignedShort();
+		Object[] pool = new Object[poolSize];
+		for (int i = 1; i < poolSize; i++) {
+			int tag = in.readUnsignedByte();
+			switch (tag) {
+			case 1: //Utf8
+				pool[i] = in.readUTF();
+				break;
+			case 7: //Class
+				pool[i] = in.readUnsignedShort();
+				break;
+			case 8: //String
+			case 16: //MethodType
+			case 19: //Module
+			case 20: //Package
+				skip(in, 2);
+				break;
+			case 15: //MethodHandle
+				skip(in, 3);
+				break;
+			case 3: //Integer
+			case 4: //Float
+			case 9: //Fieldref
+			case 10: //Methodref
+			case 11: //InterfaceMethodref
+			case 12: //NameAndType
+			case 17: //Dynamic
+			case 18: //InvokeDynamic
+				skip(in, 4);
+				break;
+			case 5: //Long
+			case 6: //Double
+				skip(in, 8);
+				i++;
+				break;
+			default:
+				throw new IOException("unknown constant pool tag "+tag);
+			}
+		}
+		
+		ClassFileInfo info = new ClassFileInfo();
+		info.access = in.readUnsignedShort();
+		info.name = getClassName(pool, in.readUnsignedShort());
+		info.superName = getClassName(pool, in.readUnsignedShort());
+		info.interfaces = new String[in.readUnsignedShort()];
+		for (int i = 0; i < info.interfaces.length; i++) {
+			info.interfaces[i] = getClassName(pool, in.readUnsignedShort());
+		}
+		
+		//fields and methods
+		for (int k = 0; k < 2; k++) {
+			int count = in.readUnsignedShort();
+			for (int i = 0; i < count; i++) {
+				skip(in, 6);
+				skipAttributes(in);
+			}
+		}
+		
+		Set<String> annotations = null;
+		int attributesCount = in.readUnsignedShort();
+		for (int i = 0; i < attributesCount; i++) {
+			String attributeName = (String)pool[in.readUnsignedShort()];
+			int length = in.readInt();
+			if( ! ANNOTATIONS_ATTRIBUTE.equals(attributeName)){
+				skip(in, length);
+				continue;
+			}
+			int count = in.readUnsignedShort();
+			annotations = new HashSet<String>(count * 2);
+			for (int j = 0; j < count; j++) {
+				annotations.add((String)pool[in.readUnsignedShort()]);
+				skipElementValuePairs(in);
+			}
+		}
+		info.annotations = annotations == null? Collections.<String>emptySet() : annotations;
+		
+		return info;
+	}
+	
+	private static String getClassName(Object[] pool, int index){
+		if(index == 0){
+			return null;
+		}
+		return (String)pool[(Integer)pool[index]];
+	}
+	
+	private static void skipAttributes(DataInputStream in) throws IOException {
+		int count = in.readUnsignedShort();
+		for (int i = 0; i < count; i++) {
+			skip(in, 2);
+			skip(in, in.readInt());
+		}
+	}
+	
+	private static void skipElementValuePairs(DataInputStream in) throws IOException {
+		int count = in.readUnsignedShort();
+		for (int i = 0; i < count; i++) {
+			skip(in, 2);
+			skipElementValue(in);
+		}
+	}
+	
+	private static void skipElementValue(DataInputStream in) throws IOException {
+		int tag = in.readUnsignedByte();
+		switch (tag) {
+		case 'e':
+			skip(in, 4);
+			break;
+		case '@':
+			skip(in, 2);
+			skipElementValuePairs(in);
+			break;
+		case '[':
+			int count = in.readUnsignedShort();
+			for (int i = 0; i < count; i++) {
+				skipElementValue(in);
+			}
+			break;
+		default:
+			//const value or class
+			skip(in, 2);
+		}
+	}
+	
+	private static void skip(DataInputStream in, int count) throws IOException {
+		while(count > 0){
+			int skipped = in.skipBytes(count);
+			if(skipped <= 0){
+				if(in.read() < 0){
+					throw new EOFException();
+				}
+				skipped = 1;
+			}
+			count -= skipped;
+		}
+	}
+
+}
@@ -14,6 +14,7 @@ package easydroid.gf.core.util;
 * limitations under the License.
 */
 
+import java.io.BufferedInputStream;
 import java.io.BufferedReader;
 import java.io.File;
 import java.io.FileNotFoundException;
@@ -24,12 +25,24 @@ import java.io.InputStreamReader;
 import java.lang.annotation.Annotation;
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.net.URLDecoder;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.jar.JarEntry;
 import java.util.jar.JarInputStream;
 import java.util.regex.Pattern;
@@ -67,6 +80,8 @@ import easydroid.util.log.Logger;
 * resolver.find(new CustomTest(), pkg2);
 * Collection&lt;ActionBean&gt; beans = resolver.getClasses();
 * </pre>
+* <p/>
+* <p>For large class paths scanning can be done by several threads, see {@link #setParallelism(int)}.</p>
 *
 * @author Tim Fennell
 */
@@ -81,6 +96,13 @@ public class ScanUtil<T> {
 	 */
 	private static final byte[] JAR_MAGIC = {'P', 'K', 3, 4};
 
+	/**
+	 * Count of class names for loading and matching by one task in parallel mode.
+	 */
+	private static final int MATCH_BATCH_SIZE = 64;
+
+	private static final AtomicInteger POOLS_COUNT = new AtomicInteger();
+
 	/**
 	 * Regular expression that matches a Java identifier.
 	 */
@@ -99,18 +121,31 @@ public class ScanUtil<T> {
 		boolean matches(Class<?> type);
 	}
 
+	/**
+	 * A Test that can reject classes by their class files, so not matching classes
+	 * are not loaded. Classes passed this check are loaded and checked by {@link #matches(Class)}.
+	 */
+	public static interface ClassFileTest extends Test {
+		/**
+		 * Must return false if the class can't match, true if it must be loaded and matched.
+		 */
+		boolean mayMatch(ClassFileInfo info, ClassFileHierarchy hierarchy);
+	}
+
 	/**
 	 * A Test that checks to see if each class is assignable to the provided class. Note
 	 * that this test will match the parent type itself if it is presented for matching.
 	 */
-	public static class IsA implements Test {
+	public static class IsA implements ClassFileTest {
 		private Class<?> parent;
+		private String parentName;
 
 		/**
 		 * Constructs an IsA test using the supplied Class as the parent class/interface.
 		 */
 		public IsA(Class<?> parentType) {
 			this.parent = parentType;
+			this.parentName = ClassFileHierarchy.getInternalName(parentType);
 		}
 
 		/**
@@ -122,6 +157,15 @@ public class ScanUtil<T> {
 			return type != null && parent.isAssignableFrom(type);
 		}
 
+		/**
+		 * Returns false if class file hierarchy is not assignable to the parent type.
+		 */
+		@Override
+		public boolean mayMatch(ClassFileInfo info, ClassFileHierarchy hierarchy) {
+			Boolean result = hierarchy.isSubtype(info, parentName);
+			return result == null || result;
+		}
+
 		@Override
 		public String toString() {
 			return "is assignable to " + parent.getSimpleName();
@@ -132,7 +176,7 @@ public class ScanUtil<T> {
 	 * A Test that checks to see if each class is annotated with a specific annotation. If it
 	 * is, then the test returns true, otherwise false.
 	 */
-	public static class AnnotatedWith implements Test {
+	public static class AnnotatedWith implements ClassFileTest {
 		private Class<? extends Annotation> annotation;
 
 		/**
@@ -151,6 +195,15 @@ public class ScanUtil<T> {
 			return type != null && type.isAnnotationPresent(annotation);
 		}
 
+		/**
+		 * Returns false if class file has no the annotation.
+		 */
+		@Override
+		public boolean mayMatch(ClassFileInfo info, ClassFileHierarchy hierarchy) {
+			Boolean result = hierarchy.hasAnnotation(info, annotation);
+			return result == null || result;
+		}
+
 		@Override
 		public String toString() {
 			return "annotated with @" + annotation.getSimpleName();
@@ -168,6 +221,16 @@ public class ScanUtil<T> {
 	 */
 	private ClassLoader classloader;
 
+	/**
+	 * Max count of threads for scanning. 1 means scanning in the calling thread.
+	 */
+	private int parallelism = 1;
+
+	/**
+	 * Class files of the current scanning for pre-filtering of classes by {@link ClassFileTest}.
+	 */
+	private volatile ClassFileHierarchy hierarchy;
+
 	/**
 	 * Provides access to the classes discovered so far. If no calls have been made to
 	 * any of the {@code find()} methods, this set will be empty.
@@ -198,6 +261,25 @@ public class ScanUtil<T> {
 		this.classloader = classloader;
 	}
 
+	/**
+	 * Returns max count of threads for scanning. 1 means scanning in the calling thread.
+	 */
+	public int getParallelism() {
+		return parallelism;
+	}
+
+	/**
+	 * Sets max count of threads for scanning. In parallel mode jars and directories are listed
+	 * concurrently by a temporary thread pool and classes are loaded and matched by batches, so
+	 * custom {@link Test} must be thread safe.
+	 *
+	 * @param parallelism max count of threads, 1 for scanning in the calling thread,
+	 *                    0 or less for count of available processors
+	 */
+	public void setParallelism(int parallelism) {
+		this.parallelism = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+	}
+
 	/**
 	 * Attempts to discover classes that are assignable to the type provided. In the case
 	 * that an interface is provided this method will collect implementations. In the case
@@ -247,7 +329,12 @@ public class ScanUtil<T> {
 	 *                    classes, e.g. {@code net.sourceforge.stripes}
 	 */
 	public ScanUtil<T> find(Test test, String packageName) {
+		if (parallelism > 1) {
+			return findParallel(test, packageName);
+		}
+
 		String path = getPackagePath(packageName);
+		hierarchy = new ClassFileHierarchy(getClassLoader());
 
 		try {
 			List<URL> urls = Collections.list(getClassLoader().getResources(path));
@@ -262,10 +349,345 @@ public class ScanUtil<T> {
 
 			log.error("Could not read package: " + packageName + " -- ", ioe);
 		}
+		finally {
+			hierarchy = null;
+		}
 
 		return this;
 	}
 
+	/**
+	 * Parallel version of {@link #find(Test, String)}: lists every resource URL, JAR file and
+	 * directory by own task, then loads and matches found classes by batches.
+	 * Tasks are executed by a temporary pool of {@link #getParallelism()} threads.
+	 *
+	 * @param test		an instance of {@link Test} that will be used to filter classes
+	 * @param packageName the name of the package from which to start scanning for classes
+	 */
+	@SuppressWarnings("unchecked")
+	protected ScanUtil<T> findParallel(Test test, String packageName) {
+		String path = getPackagePath(packageName);
+		ClassLoader loader = getClassLoader();
+		ClassFileHierarchy hierarchy = new ClassFileHierarchy(loader);
+
+		ThreadPoolExecutor pool = createPool(parallelism);
+		try {
+			List<String> resources = listParallel(pool, Collections.list(loader.getResources(path)), path);
+			List<Class<?>> found = matchParallel(pool, test, loader, hierarchy, resources);
+			for (Class<?> type : found) {
+				matches.add((Class<T>) type);
+			}
+		}
+		catch (IOException ioe) {
+			log.error("Could not read package: " + packageName + " -- ", ioe);
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		catch (ExecutionException e) {
+			log.error("Could not read package: " + packageName + " -- ", e.getCause());
+		}
+		finally {
+			pool.shutdownNow();
+		}
+
+		return this;
+	}
+
+	private static ThreadPoolExecutor createPool(int threads) {
+		final String prefix = "gf-scan-" + POOLS_COUNT.incrementAndGet() + "-";
+		return new ThreadPoolExecutor(
+				threads,
+				threads,
+				0,
+				TimeUnit.SECONDS,
+				new LinkedBlockingQueue<Runnable>(),
+				new ThreadFactory() {
+
+					AtomicInteger count = new AtomicInteger();
+
+					@Override
+					public Thread newThread(Runnable r) {
+						Thread thread = new Thread(r, prefix + count.incrementAndGet());
+						thread.setDaemon(true);
+						return thread;
+					}
+				});
+	}
+
+	/**
+	 * Lists class resources of all URLs. Tasks don't wait for each other:
+	 * child directories found by a task are submitted by the calling thread.
+	 */
+	private List<String> listParallel(ExecutorService pool, List<URL> urls, String path)
+			throws InterruptedException, ExecutionException {
+
+		CompletionService<Listing> service = new ExecutorCompletionService<Listing>(pool);
+		int pending = 0;
+		for (URL url : urls) {
+			service.submit(new ListTask(url, null, path));
+			pending++;
+		}
+
+		List<String> resources = new ArrayList<String>();
+		while (pending > 0) {
+			Listing listing = service.take().get();
+			pending--;
+			resources.addAll(listing.resources);
+			for (ListTask task : listing.subtasks) {
+				service.submit(task);
+				pending++;
+			}
+		}
+		return resources;
+	}
+
+	/**
+	 * Loads and matches classes by batches of {@link #MATCH_BATCH_SIZE}.
+	 */
+	private List<Class<?>> matchParallel(ExecutorService pool, Test test, ClassLoader loader,
+			ClassFileHierarchy hierarchy, List<String> resources)
+			throws InterruptedException, ExecutionException {
+
+		List<Future<List<Class<?>>>> tasks = new ArrayList<Future<List<Class<?>>>>();
+		for (int from = 0; from < resources.size(); from += MATCH_BATCH_SIZE) {
+			int to = Math.min(from + MATCH_BATCH_SIZE, resources.size());
+			tasks.add(pool.submit(new MatchTask(test, loader, hierarchy, resources, from, to)));
+		}
+
+		List<Class<?>> out = new ArrayList<Class<?>>();
+		for (Future<List<Class<?>>> task : tasks) {
+			out.addAll(task.get());
+		}
+		return out;
+	}
+
+	/**
+	 * Result of {@link ListTask}: found class resources and tasks for child directories.
+	 */
+	private class Listing {
+
+		final List<String> resources = new ArrayList<String>();
+		final List<ListTask> subtasks = new ArrayList<ListTask>();
+	}
+
+	/**
+	 * Lists class resources of URL or directory without descending into child directories.
+	 */
+	private class ListTask implements Callable<Listing> {
+
+		private final URL url;
+		private final File dir;
+		private final String path;
+
+		ListTask(URL url, File dir, String path) {
+			this.url = url;
+			this.dir = dir;
+			this.path = path;
+		}
+
+		@Override
+		public Listing call() {
+			Listing out = new Listing();
+			try {
+				if (dir != null) {
+					listDirectory(dir, path, out);
+				} else {
+					listClassResourcesOnce(url, path, out);
+				}
+			}
+			catch (IOException e) {
+				log.error("Could not list classes in " + (dir != null ? dir : url) + " -- ", e);
+			}
+			return out;
+		}
+
+		/**
+		 * Same as {@link ScanUtil#listClassResources(URL, String)} but every stream is opened
+		 * only once and child directories are listed by own tasks.
+		 */
+		private void listClassResourcesOnce(URL url, String path, Listing out) throws IOException {
+			log.debug("Listing classes in " + url);
+
+			URL jarUrl = extractJarUrl(url);
+			if (jarUrl != null) {
+				List<String> resources = listJar(jarUrl, path);
+				if (resources == null) {
+					// WebLogic fix: check if the URL's file exists in the filesystem.
+					File file = new File(jarUrl.getFile());
+					if (file.exists()) {
+						resources = listJar(file.toURI().toURL(), path);
+					}
+				}
+				if (resources != null) {
+					out.resources.addAll(resources);
+					return;
+				}
+			}
+
+			if ("file".equals(url.getProtocol())) {
+				File file = new File(url.getFile());
+				if (file.isDirectory()) {
+					listDirectory(file, path, out);
+					return;
+				}
+			}
+
+			List<String> children = new ArrayList<String>();
+			InputStream is = new BufferedInputStream(url.openStream());
+			try {
+				if (isJarStream(is)) {
+					// Some versions of JBoss VFS might give a JAR stream even if the resource
+					// referenced by the URL isn't actually a JAR
+					JarInputStream jarInput = new JarInputStream(is);
+					for (JarEntry entry; (entry = jarInput.getNextJarEntry()) != null;) {
+						if (isRelevantResource(entry.getName())) {
+							children.add(entry.getName());
+						}
+					}
+				} else {
+					// Some servlet containers allow reading from "directory" resources like a
+					// text file, listing the child resources one per line.
+					BufferedReader reader = new BufferedReader(new InputStreamReader(is));
+					for (String line; (line = reader.readLine()) != null;) {
+						if (isRelevantResource(line)) {
+							children.add(line);
+						}
+					}
+				}
+			}
+			finally {
+				closeQuietly(is);
+			}
+
+			String prefix = url.toExternalForm();
+			if (!prefix.endsWith("/"))
+				prefix = prefix + "/";
+
+			for (String child : children) {
+				String resourcePath = path + "/" + child;
+				if (child.endsWith(".class")) {
+					out.resources.add(resourcePath);
+				} else {
+					out.subtasks.add(new ListTask(new URL(prefix + child), null, resourcePath));
+				}
+			}
+		}
+
+		private void listDirectory(File dir, String path, Listing out) {
+			log.debug("Listing directory " + dir.getAbsolutePath());
+
+			File[] children = dir.listFiles();
+			if (children == null) {
+				return;
+			}
+			for (File child : children) {
+				String name = child.getName();
+				if (!isRelevantResource(name)) {
+					continue;
+				}
+				String resourcePath = path + "/" + name;
+				if (name.endsWith(".class")) {
+					out.resources.add(resourcePath);
+				} else if (child.isDirectory()) {
+					out.subtasks.add(new ListTask(null, child, resourcePath));
+				}
+			}
+		}
+
+		/**
+		 * @return class resources of JAR or null if URL is not a JAR
+		 */
+		private List<String> listJar(URL jarUrl, String path) {
+			InputStream is = null;
+			try {
+				is = new BufferedInputStream(jarUrl.openStream());
+				if (!isJarStream(is)) {
+					return null;
+				}
+				log.debug("Found JAR: " + jarUrl);
+				return listClassResources(new JarInputStream(is), path);
+			}
+			catch (IOException e) {
+				// Failure to read the stream means this is not a JAR
+				return null;
+			}
+			finally {
+				closeQuietly(is);
+			}
+		}
+	}
+
+	/**
+	 * Loads and matches one batch of classes.
+	 */
+	private class MatchTask implements Callable<List<Class<?>>> {
+
+		private final Test test;
+		private final ClassLoader loader;
+		private final ClassFileHierarchy hierarchy;
+		private final List<String> resources;
+		private final int from;
+		private final int to;
+
+		MatchTask(Test test, ClassLoader loader, ClassFileHierarchy hierarchy, 
+				List<String> resources, int from, int to) {
+			this.test = test;
+			this.loader = loader;
+			this.hierarchy = hierarchy;
+			this.resources = resources;
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		public List<Class<?>> call() {
+			List<Class<?>> out = new ArrayList<Class<?>>();
+			for (int i = from; i < to; i++) {
+				Class<?> type = loadIfMatching(test, resources.get(i), loader, hierarchy);
+				if (type != null) {
+					out.add(type);
+				}
+			}
+			return out;
+		}
+	}
+
+	/**
+	 * Finds JAR files with classes of the package.
+	 *
+	 * @param packageName the name of the package, e.g. {@code net.sourceforge.stripes}
+	 * @return list of JAR files or null if some location of the package is not a local JAR file
+	 */
+	public List<File> findJarFiles(String packageName) {
+		String path = getPackagePath(packageName);
+		
+		try {
+			List<File> out = new ArrayList<File>();
+			List<URL> urls = Collections.list(getClassLoader().getResources(path));
+			for (URL url : urls) {
+				if (!"jar".equals(url.getProtocol())) {
+					return null;
+				}
+				String file = url.getFile();
+				int index = file.indexOf("!/");
+				if (index < 0) {
+					return null;
+				}
+				URL jarUrl = new URL(file.substring(0, index));
+				if (!"file".equals(jarUrl.getProtocol())) {
+					return null;
+				}
+				out.add(new File(URLDecoder.decode(jarUrl.getPath(), "UTF-8")));
+			}
+			return out;
+		}
+		catch (IOException ioe) {
+			log.error("Could not read package: " + packageName + " -- ", ioe);
+			return null;
+		}
+	}
+
 	/**
 	 * Recursively list all resources under the given URL that appear to define a Java class.
 	 * Matching resources will have a name that ends in ".class" and have a relative path such that
@@ -419,31 +841,15 @@ public class ScanUtil<T> {
 	protected URL findJarForResource(URL url, String path) throws MalformedURLException {
 		log.debug("Find JAR URL: " + url);
 
-		// If the file part of the URL is itself a URL, then that URL probably points to the JAR
-		try {
-			for (; ;) {
-				url = new URL(url.getFile());
-				log.debug("Inner URL: " + url);
-			}
-		}
-		catch (MalformedURLException e) {
-			// This will happen at some point and serves a break in the loop
-		}
-
-		// Look for the .jar extension and chop off everything after that
-		StringBuilder jarUrl = new StringBuilder(url.toExternalForm());
-		int index = jarUrl.lastIndexOf(".jar");
-		if (index >= 0) {
-			jarUrl.setLength(index + 4);
-			log.debug("Extracted JAR URL: " + jarUrl);
-		} else {
-			log.debug("Not a JAR: " + jarUrl);
+		URL extracted = extractJarUrl(url);
+		if (extracted == null) {
 			return null;
 		}
+		StringBuilder jarUrl = new StringBuilder(extracted.toExternalForm());
 
 		// Try to open and test it
 		try {
-			URL testUrl = new URL(jarUrl.toString());
+			URL testUrl = extracted;
 			if (isJar(testUrl)) {
 				return testUrl;
 			} else {
@@ -474,6 +880,43 @@ public class ScanUtil<T> {
 		return null;
 	}
 
+	/**
+	 * Deconstructs the given URL to the URL of a possible JAR file without opening of it.
+	 *
+	 * @param url  The URL of the JAR entry.
+	 * @return The URL ending with ".jar" or null.
+	 */
+	protected URL extractJarUrl(URL url) {
+		// If the file part of the URL is itself a URL, then that URL probably points to the JAR
+		try {
+			for (; ;) {
+				url = new URL(url.getFile());
+				log.debug("Inner URL: " + url);
+			}
+		}
+		catch (MalformedURLException e) {
+			// This will happen at some point and serves a break in the loop
+		}
+
+		// Look for the .jar extension and chop off everything after that
+		StringBuilder jarUrl = new StringBuilder(url.toExternalForm());
+		int index = jarUrl.lastIndexOf(".jar");
+		if (index < 0) {
+			log.debug("Not a JAR: " + jarUrl);
+			return null;
+		}
+		jarUrl.setLength(index + 4);
+		log.debug("Extracted JAR URL: " + jarUrl);
+
+		try {
+			return new URL(jarUrl.toString());
+		}
+		catch (MalformedURLException e) {
+			log.warn("Invalid JAR URL: " + jarUrl);
+			return null;
+		}
+	}
+
 	/**
 	 * Converts a Java package name to a path that can be looked up with a call to
 	 * {@link ClassLoader#getResources(String)}.
@@ -538,6 +981,37 @@ public class ScanUtil<T> {
 		return false;
 	}
 
+	/**
+	 * Returns true if the stream starts with {@link #JAR_MAGIC}. The stream is reset to
+	 * its start, so it can be read as a JAR after this check.
+	 *
+	 * @param is The stream with mark support.
+	 */
+	protected boolean isJarStream(InputStream is) throws IOException {
+		byte[] buffer = new byte[JAR_MAGIC.length];
+		is.mark(buffer.length);
+		int read = 0;
+		while (read < buffer.length) {
+			int count = is.read(buffer, read, buffer.length - read);
+			if (count < 0) {
+				break;
+			}
+			read += count;
+		}
+		is.reset();
+		return Arrays.equals(buffer, JAR_MAGIC);
+	}
+
+	private static void closeQuietly(InputStream is) {
+		try {
+			if (is != null) {
+				is.close();
+			}
+		}
+		catch (Exception e) {
+		}
+	}
+
 	/**
 	 * Add the class designated by the fully qualified class name provided to the set of
 	 * resolved classes if and only if it is approved by the Test supplied.
@@ -547,20 +1021,45 @@ public class ScanUtil<T> {
 	 */
 	@SuppressWarnings("unchecked")
 	protected void addIfMatching(Test test, String fqn) {
+		ClassFileHierarchy hierarchy = this.hierarchy;
+		if (hierarchy == null) {
+			hierarchy = new ClassFileHierarchy(getClassLoader());
+		}
+		Class<?> type = loadIfMatching(test, fqn, getClassLoader(), hierarchy);
+		if (type != null) {
+			matches.add((Class<T>) type);
+		}
+	}
+
+	/**
+	 * Loads the class designated by the fully qualified class name provided.
+	 * {@link ClassFileTest} is checked by the class file before loading.
+	 *
+	 * @return the class if it is approved by the Test supplied or null
+	 */
+	protected Class<?> loadIfMatching(Test test, String fqn, ClassLoader loader, 
+			ClassFileHierarchy hierarchy) {
 		try {
+			if (test instanceof ClassFileTest && fqn.endsWith(".class")) {
+				ClassFileInfo info = hierarchy.getInfo(fqn.substring(0, fqn.length() - 6));
+				if (info != null && !((ClassFileTest) test).mayMatch(info, hierarchy)) {
+					return null;
+				}
+			}
+
 			String externalName = fqn.substring(0, fqn.indexOf('.')).replace('/', '.');
-			ClassLoader loader = getClassLoader();
 			log.debug("Checking to see if class " + externalName + " matches criteria [" + test + "]");
 
-			Class type = loader.loadClass(externalName);
+			Class<?> type = loader.loadClass(externalName);
 			if (test.matches(type)) {
-				matches.add((Class<T>) type);
+				return type;
 			}
 		}
 		catch (Throwable t) {
 			log.warn("Could not examine class '" + fqn + "'" + " due to a " +
 					t.getClass().getName() + " with message: " + t.getMessage());
 		}
+		return null;
 	}
 }
 
@@ -0,0 +1,50 @@
+/*
+ * Copyright 2012 Evgeny Dolganov (evgenij.dolganov@gmail.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package easydroid.gf.exception.deploy;
+
+import easydroid.gf.annotation.Pooled;
+import easydroid.gf.annotation.Shared;
+
+/**
+ * Invalid usage of {@link Shared} or {@link Pooled} annotations.
+ * <p>Example:
+ * <pre>
+ * 
+ * &#064;Shared
+ * &#064;Pooled
+ * &#064;Mapping(SomeAction.class)
+ * public class SomeHandler extends Handler<SomeAction>{ 
+ * 	... 
+ * }
+ * 
+ * Engine engine = new Engine();
+ * engine.putHandler(SomeHandler.class); //throws InvalidScopeException
+ * 
+ * </pre>
+ * @author Evgeny Dolganov
+ * @see Shared
+ * @see Pooled
+ *
+ */
+public class InvalidScopeException extends DeployException {
+	
+	private static final long serialVersionUID = -2714863527003452411L;
+
+	public InvalidScopeException(Class<?> type, String reason) {
+		super("invalid scope of ["+type+"]: "+reason);
+	}
+
+}
@@ -0,0 +1,54 @@
+/*
+ * Copyright 2012 Evgeny Dolganov (evgenij.dolganov@gmail.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package easydroid.gf.exception.invoke;
+
+import java.util.List;
+import java.util.Map;
+
+import easydroid.gf.Action;
+
+/**
+ * Exceptions of <tt>Engine.invokeAll</tt> in {@link easydroid.gf.extra.invocation.InvokeAllErrors#COLLECT_ALL} mode
+ */
+public class InvokeAllException extends InvocationException {
+	
+	private static final long serialVersionUID = 1L;
+	
+	private Map<Action<?,?>, Exception> errors;
+	private List<Action<?,?>> invoked;
+
+	public InvokeAllException(Map<Action<?,?>, Exception> errors, List<Action<?,?>> invoked) {
+		super("can't invoke "+errors.size()+" action(s), first: "+errors.values().iterator().next(), 
+				errors.values().iterator().next());
+		this.errors = errors;
+		this.invoked = invoked;
+	}
+	
+	/**
+	 * Failed actions and theirs exceptions
+	 */
+	public Map<Action<?,?>, Exception> getErrors() {
+		return errors;
+	}
+	
+	/**
+	 * Successfully invoked actions
+	 */
+	public List<Action<?,?>> getInvoked() {
+		return invoked;
+	}
+
+}
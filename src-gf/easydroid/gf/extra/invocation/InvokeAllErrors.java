@@ -0,0 +1,35 @@
+/*
+ * Copyright 2012 Evgeny Dolganov (evgenij.dolganov@gmail.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package easydroid.gf.extra.invocation;
+
+import easydroid.gf.exception.invoke.InvokeAllException;
+
+/**
+ * Error policy of <tt>Engine.invokeAll</tt>
+ */
+public enum InvokeAllErrors {
+	
+	/** 
+	 * stop on the first exception and throw it as <tt>Engine.invoke</tt> does
+	 */
+	FAIL_FAST,
+	
+	/**
+	 * invoke all actions and throw {@link InvokeAllException} with all exceptions
+	 */
+	COLLECT_ALL
+
+}
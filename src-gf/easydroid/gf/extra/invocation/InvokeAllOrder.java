@@ -13,24 +13,17 @@
  * See the License for the specific language governing permissions and
  * limitations under the License.
  */
-package easydroid.gf.core.action.filter;
+package easydroid.gf.extra.invocation;
 
-import easydroid.gf.core.action.InvocationContext;
-
-
-public class FiltersBlock {
-	
-	InvocationContext c;
+/**
+ * Order of invoked actions in result of <tt>Engine.invokeAll</tt>
+ */
+public enum InvokeAllOrder {
 	
-	public FiltersBlock(InvocationContext context) {
-		this.c = context;
-	}
+	/** same order as in the input collection */
+	ORDERED,
 	
-	public void invoke() throws Exception {
-		
-		FilterChainImpl chain = new FilterChainImpl(c);
-		chain.invoke();
-		
-	}
+	/** order of invocations' ends */
+	UNORDERED
 
 }
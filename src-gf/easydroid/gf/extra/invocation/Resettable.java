@@ -13,25 +13,18 @@
  * See the License for the specific language governing permissions and
  * limitations under the License.
  */
-package easydroid.gf.core.action.interceptor;
+package easydroid.gf.extra.invocation;
 
-import easydroid.gf.core.action.InvocationContext;
+import easydroid.gf.annotation.Pooled;
 
-public class InterceptorsBlock {
+/**
+ * Interface for {@link Pooled} objects.
+ * <br>Called after invocation before returning object to pool.
+ * 
+ * @see Pooled
+ */
+public interface Resettable {
 	
-	InvocationContext c;
-
-	public InterceptorsBlock(InvocationContext context) {
-		this.c = context;
-	}
-
-	public void invoke() throws Exception {
-		
-		InterceptorChainImpl chain = new InterceptorChainImpl(c);
-		chain.invoke();
-		
-	}
-
-
+	void reset() throws Exception;
 
 }
@@ -0,0 +1,152 @@
+/*
+ * Copyright 2012 Evgeny Dolganov (evgenij.dolganov@gmail.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package easydroid.gf.extra.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Striped histogram of latencies in nanoseconds with log-linear buckets:
+ * each power of two is split into {@link #SUB_BUCKETS} parts,
+ * so the relative error of a percentile is not more than 25%.
+ * <br>Recording is lock-free, reading sums all stripes.
+ */
+public class LatencyHistogram {
+	
+	public static final int SUB_BITS = 2;
+	public static final int SUB_BUCKETS = 1 << SUB_BITS;
+	//values up to 2^40 ns (about 18 min), bigger values go to the last bucket
+	public static final int MAX_BITS = 40;
+	public static final int BUCKETS = (MAX_BITS - SUB_BITS + 1) * SUB_BUCKETS;
+	
+	private static final int STRIPES = StripedCounter.STRIPES;
+	//stripe row: buckets + max + padding
+	private static final int ROW = BUCKETS + StripedCounter.PAD;
+	
+	private final AtomicLongArray cells = new AtomicLongArray(STRIPES * ROW);
+	private final StripedCounter total = new StripedCounter();
+	
+	public void record(long nanos){
+		if(nanos < 0){
+			nanos = 0;
+		}
+		int row = StripedCounter.stripe() * ROW;
+		cells.incrementAndGet(row + bucketIndex(nanos));
+		total.add(nanos);
+		
+		int maxIndex = row + BUCKETS;
+		long max = cells.get(maxIndex);
+		while(nanos > max){
+			if(cells.compareAndSet(maxIndex, max, nanos)){
+				break;
+			}
+			max = cells.get(maxIndex);
+		}
+	}
+	
+	public void reset(){
+		for(int i = 0; i < cells.length(); i++){
+			cells.set(i, 0);
+		}
+		total.reset();
+	}
+	
+	/**
+	 * Merged copy of all stripes
+	 */
+	public Counts getCounts(){
+		long[] buckets = new long[BUCKETS];
+		long max = 0;
+		for(int s = 0; s < STRIPES; s++){
+			int row = s * ROW;
+			for(int i = 0; i < BUCKETS; i++){
+				buckets[i] += cells.get(row + i);
+			}
+			max = Math.max(max, cells.get(row + BUCKETS));
+		}
+		return new Counts(buckets, max, total.get());
+	}
+	
+	public static int bucketIndex(long nanos){
+		if(nanos < SUB_BUCKETS){
+			return (int)nanos;
+		}
+		int bits = 64 - Long.numberOfLeadingZeros(nanos);
+		if(bits > MAX_BITS){
+			return BUCKETS - 1;
+		}
+		int shift = bits - SUB_BITS - 1;
+		int sub = (int)(nanos >>> shift) & (SUB_BUCKETS - 1);
+		return (shift + 1) * SUB_BUCKETS + sub;
+	}
+	
+	/**
+	 * Biggest value of the bucket
+	 */
+	static long bucketUpperBound(int index){
+		int group = index / SUB_BUCKETS;
+		int sub = index % SUB_BUCKETS;
+		if(group == 0){
+			return sub;
+		}
+		int shift = group - 1;
+		long from = ((long)(SUB_BUCKETS + sub)) << shift;
+		return from + (1L << shift) - 1;
+	}
+	
+	
+	public static class Counts {
+		
+		public final long[] buckets;
+		public final long max;
+		public final long totalNanos;
+		public final long count;
+		
+		public Counts(long[] buckets, long max, long totalNanos) {
+			this.buckets = buckets;
+			this.max = max;
+			this.totalNanos = totalNanos;
+			long count = 0;
+			for(long val : buckets){
+				count += val;
+			}
+			this.count = count;
+		}
+		
+		/**
+		 * @param percent from 0 to 100
+		 * @return upper bound of the bucket with the percentile, but not bigger than max
+		 */
+		public long getPercentile(double percent){
+			if(count == 0){
+				return 0;
+			}
+			long rank = (long)Math.ceil(count * percent / 100.0);
+			if(rank < 1){
+				rank = 1;
+			}
+			long seen = 0;
+			for(int i = 0; i < buckets.length; i++){
+				seen += buckets[i];
+				if(seen >= rank){
+					return Math.min(bucketUpperBound(i), max);
+				}
+			}
+			return max;
+		}
+		
+	}
+
+}
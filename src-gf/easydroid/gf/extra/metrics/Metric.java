@@ -0,0 +1,74 @@
+/*
+ * Copyright 2012 Evgeny Dolganov (evgenij.dolganov@gmail.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package easydroid.gf.extra.metrics;
+
+/**
+ * Counters of one action, filter, interceptor or handler type.
+ * <br>Usage:
+ * <pre>
+ * long start = metric.start();
+ * boolean ok = false;
+ * try {
+ *     ...
+ *     ok = true;
+ * } finally {
+ *     metric.stop(start, ! ok);
+ * }</pre>
+ */
+public class Metric {
+	
+	public final MetricKind kind;
+	public final Class<?> type;
+	
+	private final StripedCounter errors = new StripedCounter();
+	private final StripedCounter inFlight = new StripedCounter();
+	private final LatencyHistogram latency = new LatencyHistogram();
+	
+	public Metric(MetricKind kind, Class<?> type) {
+		this.kind = kind;
+		this.type = type;
+	}
+	
+	/**
+	 * @return start time in nanos for {@link #stop(long, boolean)}
+	 */
+	public long start(){
+		inFlight.increment();
+		return System.nanoTime();
+	}
+	
+	public void stop(long startNanos, boolean isError){
+		long duration = System.nanoTime() - startNanos;
+		inFlight.decrement();
+		latency.record(duration);
+		if(isError){
+			errors.increment();
+		}
+	}
+	
+	/**
+	 * Reset counters and histogram, in-flight gauge is not changed
+	 */
+	public void reset(){
+		errors.reset();
+		latency.reset();
+	}
+	
+	public MetricSnapshot snapshot(){
+		return new MetricSnapshot(kind, type, latency.getCounts(), errors.get(), inFlight.get());
+	}
+
+}
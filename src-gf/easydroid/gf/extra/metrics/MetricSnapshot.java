@@ -0,0 +1,58 @@
+/*
+ * Copyright 2012 Evgeny Dolganov (evgenij.dolganov@gmail.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package easydroid.gf.extra.metrics;
+
+/**
+ * Immutable values of {@link Metric}, all times are in nanoseconds
+ */
+public class MetricSnapshot {
+	
+	public final MetricKind kind;
+	public final Class<?> type;
+	public final long count;
+	public final long errors;
+	public final long inFlight;
+	public final long totalNanos;
+	public final long p50;
+	public final long p95;
+	public final long p99;
+	public final long max;
+	
+	MetricSnapshot(MetricKind kind, Class<?> type, LatencyHistogram.Counts counts, long errors, long inFlight) {
+		this.kind = kind;
+		this.type = type;
+		this.count = counts.count;
+		this.errors = errors;
+		this.inFlight = inFlight;
+		this.totalNanos = counts.totalNanos;
+		this.p50 = counts.getPercentile(50);
+		this.p95 = counts.getPercentile(95);
+		this.p99 = counts.getPercentile(99);
+		this.max = counts.max;
+	}
+	
+	public long getMeanNanos(){
+		return count == 0? 0 : totalNanos / count;
+	}
+
+	@Override
+	public String toString() {
+		return "MetricSnapshot [kind=" + kind + ", type=" + type.getName() 
+				+ ", count=" + count + ", errors=" + errors + ", inFlight=" + inFlight
+				+ ", p50=" + p50 + ", p95=" + p95 + ", p99=" + p99 + ", max=" + max + "]";
+	}
+
+}
@@ -0,0 +1,72 @@
+/*
+ * Copyright 2012 Evgeny Dolganov (evgenij.dolganov@gmail.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package easydroid.gf.extra.metrics;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Metrics of the engine by action types and by filter, interceptor and handler types.
+ * <br>Times of filters and interceptors include the rest of the chain after them.
+ * 
+ * @see easydroid.gf.key.CollectMetrics
+ */
+public class MetricsRegistry {
+	
+	private final ConcurrentHashMap<Class<?>, Metric>[] maps;
+	
+	@SuppressWarnings({ "rawtypes", "unchecked" })
+	public MetricsRegistry() {
+		MetricKind[] kinds = MetricKind.values();
+		maps = new ConcurrentHashMap[kinds.length];
+		for(int i = 0; i < kinds.length; i++){
+			maps[i] = new ConcurrentHashMap<Class<?>, Metric>();
+		}
+	}
+	
+	public Metric get(MetricKind kind, Class<?> type){
+		ConcurrentHashMap<Class<?>, Metric> map = maps[kind.ordinal()];
+		Metric metric = map.get(type);
+		if(metric == null){
+			Metric created = new Metric(kind, type);
+			metric = map.putIfAbsent(type, created);
+			if(metric == null){
+				metric = created;
+			}
+		}
+		return metric;
+	}
+	
+	public MetricsSnapshot snapshot(){
+		List<MetricSnapshot> list = new ArrayList<MetricSnapshot>();
+		for(ConcurrentHashMap<Class<?>, Metric> map : maps){
+			for(Metric metric : map.values()){
+				list.add(metric.snapshot());
+			}
+		}
+		return new MetricsSnapshot(list);
+	}
+	
+	public void reset(){
+		for(ConcurrentHashMap<Class<?>, Metric> map : maps){
+			for(Metric metric : map.values()){
+				metric.reset();
+			}
+		}
+	}
+
+}
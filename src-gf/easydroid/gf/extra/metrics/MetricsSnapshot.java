@@ -0,0 +1,131 @@
+/*
+ * Copyright 2012 Evgeny Dolganov (evgenij.dolganov@gmail.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package easydroid.gf.extra.metrics;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+import easydroid.gf.extra.util.FormatUtil;
+
+/**
+ * Snapshot of {@link MetricsRegistry}: sorted by kind and by total time descending.
+ */
+public class MetricsSnapshot {
+	
+	private final List<MetricSnapshot> metrics;
+	
+	MetricsSnapshot(List<MetricSnapshot> list) {
+		ArrayList<MetricSnapshot> copy = new ArrayList<MetricSnapshot>(list);
+		Collections.sort(copy, new Comparator<MetricSnapshot>() {
+			@Override
+			public int compare(MetricSnapshot a, MetricSnapshot b) {
+				int out = a.kind.compareTo(b.kind);
+				if(out != 0){
+					return out;
+				}
+				return a.totalNanos < b.totalNanos? 1 : (a.totalNanos == b.totalNanos? 0 : -1);
+			}
+		});
+		metrics = Collections.unmodifiableList(copy);
+	}
+	
+	public List<MetricSnapshot> getAll(){
+		return metrics;
+	}
+	
+	public List<MetricSnapshot> get(MetricKind kind){
+		List<MetricSnapshot> out = new ArrayList<MetricSnapshot>();
+		for(MetricSnapshot metric : metrics){
+			if(metric.kind == kind){
+				out.add(metric);
+			}
+		}
+		return out;
+	}
+	
+	/**
+	 * @return metric of the type or null
+	 */
+	public MetricSnapshot get(MetricKind kind, Class<?> type){
+		for(MetricSnapshot metric : metrics){
+			if(metric.kind == kind && metric.type.equals(type)){
+				return metric;
+			}
+		}
+		return null;
+	}
+	
+	/**
+	 * Text table, times in milliseconds
+	 */
+	public String toText(){
+		StringBuilder sb = new StringBuilder();
+		MetricKind lastKind = null;
+		for(MetricSnapshot m : metrics){
+			if(m.kind != lastKind){
+				lastKind = m.kind;
+				sb.append(m.kind).append(":\n");
+			}
+			sb.append('\t').append(m.type.getName())
+				.append(" count=").append(m.count)
+				.append(" errors=").append(m.errors)
+				.append(" inFlight=").append(m.inFlight)
+				.append(" mean=").append(FormatUtil.toMs(m.getMeanNanos()))
+				.append(" p50=").append(FormatUtil.toMs(m.p50))
+				.append(" p95=").append(FormatUtil.toMs(m.p95))
+				.append(" p99=").append(FormatUtil.toMs(m.p99))
+				.append(" max=").append(FormatUtil.toMs(m.max))
+				.append('\n');
+		}
+		return sb.toString();
+	}
+	
+	/**
+	 * JSON array of metrics, times in nanoseconds
+	 */
+	public String toJson(){
+		StringBuilder sb = new StringBuilder();
+		sb.append('[');
+		for(int i = 0; i < metrics.size(); i++){
+			MetricSnapshot m = metrics.get(i);
+			if(i > 0){
+				sb.append(',');
+			}
+			sb.append("{\"kind\":\"").append(m.kind).append('"');
+			sb.append(",\"type\":");
+			FormatUtil.appendJsonString(sb, m.type.getName());
+			sb.append(",\"count\":").append(m.count);
+			sb.append(",\"errors\":").append(m.errors);
+			sb.append(",\"inFlight\":").append(m.inFlight);
+			sb.append(",\"totalNanos\":").append(m.totalNanos);
+			sb.append(",\"p50\":").append(m.p50);
+			sb.append(",\"p95\":").append(m.p95);
+			sb.append(",\"p99\":").append(m.p99);
+			sb.append(",\"max\":").append(m.max);
+			sb.append('}');
+		}
+		sb.append(']');
+		return sb.toString();
+	}
+	
+	@Override
+	public String toString() {
+		return toText();
+	}
+
+}
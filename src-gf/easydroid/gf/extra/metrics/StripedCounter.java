@@ -0,0 +1,77 @@
+/*
+ * Copyright 2012 Evgeny Dolganov (evgenij.dolganov@gmail.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package easydroid.gf.extra.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Counter which spreads updates of different threads over padded cells,
+ * so concurrent increments don't contend on one value.
+ */
+public class StripedCounter {
+	
+	//one cell per cache line
+	static final int PAD = 8;
+	static final int STRIPES = stripesCount();
+	
+	private final AtomicLongArray cells = new AtomicLongArray(STRIPES * PAD);
+	
+	public void increment(){
+		cells.incrementAndGet(stripe() * PAD);
+	}
+	
+	public void decrement(){
+		cells.decrementAndGet(stripe() * PAD);
+	}
+	
+	public void add(long delta){
+		cells.addAndGet(stripe() * PAD, delta);
+	}
+	
+	/**
+	 * Sum of all cells, not atomic with concurrent updates
+	 */
+	public long get(){
+		long sum = 0;
+		for(int i = 0; i < STRIPES; i++){
+			sum += cells.get(i * PAD);
+		}
+		return sum;
+	}
+	
+	public void reset(){
+		for(int i = 0; i < STRIPES; i++){
+			cells.set(i * PAD, 0);
+		}
+	}
+	
+	static int stripe(){
+		long id = Thread.currentThread().getId();
+		int h = (int)(id ^ (id >>> 32));
+		h ^= (h >>> 16);
+		return h & (STRIPES - 1);
+	}
+	
+	private static int stripesCount(){
+		int cpus = Runtime.getRuntime().availableProcessors();
+		int out = 1;
+		while(out < cpus * 2 && out < 64){
+			out <<= 1;
+		}
+		return out;
+	}
+
+}
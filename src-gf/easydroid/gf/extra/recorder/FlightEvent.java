@@ -0,0 +1,49 @@
+/*
+ * Copyright 2012 Evgeny Dolganov (evgenij.dolganov@gmail.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package easydroid.gf.extra.recorder;
+
+/**
+ * Decoded event of {@link FlightRecorder}
+ */
+public class FlightEvent {
+	
+	public final long seq;
+	public final long nanos;
+	public final int threadId;
+	public final byte type;
+	public final String className;
+	public final int status;
+	
+	public FlightEvent(long seq, long nanos, int threadId, byte type, String className, int status) {
+		this.seq = seq;
+		this.nanos = nanos;
+		this.threadId = threadId;
+		this.type = type;
+		this.className = className;
+		this.status = status;
+	}
+	
+	public boolean isError(){
+		return status == FlightRecorder.STATUS_ERROR;
+	}
+
+	@Override
+	public String toString() {
+		return "FlightEvent [seq=" + seq + ", nanos=" + nanos + ", threadId=" + threadId 
+				+ ", type=" + type + ", className=" + className + ", status=" + status + "]";
+	}
+
+}
@@ -0,0 +1,242 @@
+/*
+ * Copyright 2012 Evgeny Dolganov (evgenij.dolganov@gmail.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package easydroid.gf.extra.recorder;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+
+import easydroid.gf.extra.trace.InvocaitonEndStatus;
+import easydroid.gf.extra.trace.Trace;
+import easydroid.gf.extra.trace.TraceElement;
+import easydroid.gf.extra.trace.TraceLevel;
+import easydroid.gf.extra.trace.TraceLevelItem;
+
+/**
+ * Reader of {@link FlightRecorder}'s dumps.
+ * <br>Traces are rebuilt per thread by nesting of events. 
+ * Owners of items are class names, action types of traces are loaded if it's possible.
+ * Elements which are not finished at the dump have no end status 
+ * and end at the last event of their thread. 
+ * Ends without starts (starts were overwritten in the ring) are skipped.
+ */
+public class FlightRecordReader {
+	
+	private final List<FlightEvent> events;
+	private int droppedCount;
+	
+	public FlightRecordReader(InputStream is) throws IOException {
+		
+		DataInputStream in = new DataInputStream(is);
+		if(in.readInt() != FlightRecorder.MAGIC){
+			throw new IOException("not a flight record");
+		}
+		int version = in.readInt();
+		if(version != FlightRecorder.VERSION){
+			throw new IOException("unknown version of flight record: "+version);
+		}
+		int recordSize = in.readInt();
+		String[] names = new String[in.readInt()];
+		for(int i = 0; i < names.length; i++){
+			names[i] = in.readUTF();
+		}
+		long first = in.readLong();
+		int count = in.readInt();
+		
+		events = new ArrayList<FlightEvent>(count);
+		byte[] records = new byte[count * recordSize];
+		in.readFully(records);
+		ByteBuffer r = ByteBuffer.wrap(records);
+		for(int i = 0; i < count; i++){
+			int offset = i * recordSize;
+			long seq = r.getLong(offset);
+			long nanos = r.getLong(offset + 8);
+			int threadId = r.getInt(offset + 16);
+			int classId = r.getInt(offset + 20);
+			int status = r.getInt(offset + 24);
+			byte type = r.get(offset + 28);
+			
+			//slot was written concurrently with the dump
+			if(seq != first + i + 1 || classId < 0 || classId >= names.length){
+				droppedCount++;
+				continue;
+			}
+			events.add(new FlightEvent(seq - 1, nanos, threadId, type, names[classId], status));
+		}
+	}
+	
+	/**
+	 * Events from the oldest
+	 */
+	public List<FlightEvent> getEvents() {
+		return events;
+	}
+	
+	/**
+	 * Count of records which were being written at the dump
+	 */
+	public int getDroppedCount() {
+		return droppedCount;
+	}
+	
+	/**
+	 * Traces of all threads, in order of their start
+	 */
+	public List<Trace> buildTraces(){
+		
+		List<Trace> out = new ArrayList<Trace>();
+		Map<Integer, LinkedList<TraceElement>> stacks = new LinkedHashMap<Integer, LinkedList<TraceElement>>();
+		Map<Integer, Long> lastNanos = new LinkedHashMap<Integer, Long>();
+		
+		for(FlightEvent e : events){
+			
+			LinkedList<TraceElement> stack = stacks.get(e.threadId);
+			if(stack == null){
+				stack = new LinkedList<TraceElement>();
+				stacks.put(e.threadId, stack);
+			}
+			lastNanos.put(e.threadId, e.nanos);
+			TraceElement top = stack.isEmpty()? null : stack.getLast();
+			
+			switch (e.type) {
+			
+			case FlightRecorder.INVOKE_START:{
+				Trace trace = new Trace(e.className);
+				trace.setActionType(loadClass(e.className));
+				start(trace, e);
+				if(top instanceof TraceLevelItem){
+					top.addChild(trace);
+				} else {
+					out.add(trace);
+				}
+				stack.addLast(trace);
+				break;
+			}
+			case FlightRecorder.ENTER:{
+				//branch of parallel sub invocation in other thread
+				if(top == null){
+					top = new Trace(null);
+					start(top, e);
+					out.add((Trace)top);
+					stack.addLast(top);
+				}
+				//items of a chain are in the same level
+				TraceLevel level = getLastLevel(stack);
+				TraceLevelItem item = new TraceLevelItem(e.className);
+				start(item, e);
+				level.addChild(item);
+				stack.addLast(item);
+				break;
+			}
+			case FlightRecorder.SUB_INVOKE_START:{
+				TraceLevel level = new TraceLevel();
+				start(level, e);
+				if(top instanceof TraceLevelItem){
+					top.addChild(level);
+					stack.addLast(level);
+				} else if(top == null){
+					Trace trace = new Trace(e.className);
+					trace.setActionType(loadClass(e.className));
+					start(trace, e);
+					out.add(trace);
+					stack.addLast(trace);
+				}
+				break;
+			}
+			case FlightRecorder.EXIT:
+			case FlightRecorder.SUB_INVOKE_END:
+			case FlightRecorder.INVOKE_END:{
+				boolean isItemEnd = e.type == FlightRecorder.EXIT;
+				if(top != null && (top instanceof TraceLevelItem) == isItemEnd){
+					stack.removeLast();
+					stop(top, e);
+				}
+				break;
+			}
+			case FlightRecorder.EXCEPTION:{
+				if(top != null && top.getThrowable() == null){
+					top.setThrowable(new RecordedException(e.className));
+				}
+				break;
+			}
+			default:
+				break;
+			}
+		}
+		
+		//not finished elements
+		for(Map.Entry<Integer, LinkedList<TraceElement>> entry : stacks.entrySet()){
+			long end = lastNanos.get(entry.getKey());
+			for(TraceElement elem : entry.getValue()){
+				elem.setTime(elem.getStartNanos(), end);
+			}
+		}
+		
+		return out;
+	}
+	
+	private static TraceLevel getLastLevel(LinkedList<TraceElement> stack){
+		Iterator<TraceElement> it = stack.descendingIterator();
+		while(it.hasNext()){
+			TraceElement elem = it.next();
+			if(elem instanceof TraceLevel){
+				return (TraceLevel)elem;
+			}
+		}
+		throw new IllegalStateException("no level in "+stack);
+	}
+	
+	private static void start(TraceElement elem, FlightEvent e){
+		elem.setTime(e.nanos, e.nanos);
+	}
+	
+	private static void stop(TraceElement elem, FlightEvent e){
+		elem.setTime(elem.getStartNanos(), e.nanos);
+		elem.setEndStatus(e.isError()? InvocaitonEndStatus.WITH_EXCEPTION : InvocaitonEndStatus.SUCCESSED);
+	}
+	
+	private static Class<?> loadClass(String name){
+		try {
+			return Class.forName(name, false, FlightRecordReader.class.getClassLoader());
+		}catch (Throwable t) {
+			return null;
+		}
+	}
+	
+	/**
+	 * Exception of a recorded invocation, only its type is known
+	 */
+	public static class RecordedException extends Exception {
+		
+		private static final long serialVersionUID = 1L;
+		
+		public final String type;
+		
+		public RecordedException(String type) {
+			super(type);
+			this.type = type;
+		}
+		
+	}
+
+}
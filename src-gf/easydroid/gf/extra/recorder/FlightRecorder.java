@@ -0,0 +1,222 @@
+/*
+ * Copyright 2012 Evgeny Dolganov (evgenij.dolganov@gmail.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package easydroid.gf.extra.recorder;
+
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.Thread.UncaughtExceptionHandler;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import easydroid.util.file.AbstractFileStorage;
+import easydroid.util.file.OutputStreamCallback;
+import easydroid.util.log.LogFactory;
+import easydroid.util.log.Logger;
+
+/**
+ * Always-on recorder of engine events into a fixed-size ring.
+ * <br>Each event is a record of {@link #RECORD_SIZE} bytes: 
+ * sequence number, <tt>System.nanoTime()</tt>, thread id, interned class id, status and type.
+ * Recording doesn't block and doesn't allocate (except the first use of a class), 
+ * new events overwrite the oldest ones.
+ * <br>Ring can be dumped to a file on demand or on an uncaught exception,
+ * the dump is read by {@link FlightRecordReader}.
+ * <p>Example:
+ * <pre>
+ * FlightRecorder recorder = new FlightRecorder(64 * 1024);
+ * engine.setConfig(FlightRecording.class, recorder);
+ * recorder.dumpOnUncaughtException(storage, "gf/flight.rec");
+ * </pre>
+ * <b>Note:</b> writers don't wait for each other, so a record which is overwritten 
+ * while it's being written can be dropped by the reader 
+ * (or mixed with the next one if the ring wraps around during a single write: too small capacity).
+ * 
+ * @see easydroid.gf.key.FlightRecording
+ */
+public class FlightRecorder {
+	
+	private static final Logger log = LogFactory.getLog(FlightRecorder.class);
+	
+	public static final byte INVOKE_START = 1;
+	public static final byte INVOKE_END = 2;
+	public static final byte ENTER = 3;
+	public static final byte EXIT = 4;
+	public static final byte SUB_INVOKE_START = 5;
+	public static final byte SUB_INVOKE_END = 6;
+	public static final byte EXCEPTION = 7;
+	
+	public static final int STATUS_OK = 0;
+	public static final int STATUS_ERROR = 1;
+	
+	//seq(8) nanos(8) thread(4) classId(4) status(4) type(1) padding(3)
+	public static final int RECORD_SIZE = 32;
+	static final int MAGIC = 0x47464652; //GFFR
+	static final int VERSION = 1;
+	
+	public static final int MAX_CAPACITY = Integer.MAX_VALUE / RECORD_SIZE;
+	
+	//record in the ring: seq, nanos, thread|classId, status|type
+	private static final int LONGS_PER_RECORD = RECORD_SIZE / 8;
+	
+	private final AtomicLongArray ring;
+	private final int capacity;
+	private final AtomicLong position = new AtomicLong();
+	
+	private final ConcurrentHashMap<Class<?>, Integer> classIds = new ConcurrentHashMap<Class<?>, Integer>();
+	private final ArrayList<String> classNames = new ArrayList<String>();
+	
+	/**
+	 * @param capacity max count of events in the ring, not more than {@link #MAX_CAPACITY}
+	 */
+	public FlightRecorder(int capacity) {
+		if(capacity < 1){
+			throw new IllegalArgumentException("capacity must be positive: "+capacity);
+		}
+		if(capacity > MAX_CAPACITY){
+			throw new IllegalArgumentException("capacity must be not more than "+MAX_CAPACITY+": "+capacity);
+		}
+		this.capacity = capacity;
+		this.ring = new AtomicLongArray(capacity * LONGS_PER_RECORD);
+	}
+	
+	public void record(byte type, Class<?> clazz, int status){
+		
+		int classId = getClassId(clazz);
+		long seq = position.getAndIncrement();
+		int index = (int)(seq % capacity) * LONGS_PER_RECORD;
+		
+		//ordered stores: 0 seq (the slot is being written), payload, then the record's seq
+		ring.lazySet(index, 0);
+		ring.lazySet(index + 1, System.nanoTime());
+		ring.lazySet(index + 2, ((long)(int)Thread.currentThread().getId() << 32) | (classId & 0xFFFFFFFFL));
+		ring.lazySet(index + 3, ((long)status << 32) | ((type & 0xFFL) << 24));
+		ring.lazySet(index, seq + 1);
+	}
+	
+	private int getClassId(Class<?> clazz){
+		Integer id = classIds.get(clazz);
+		if(id != null){
+			return id;
+		}
+		synchronized (classNames) {
+			id = classIds.get(clazz);
+			if(id == null){
+				id = classNames.size();
+				classNames.add(clazz.getName());
+				classIds.put(clazz, id);
+			}
+			return id;
+		}
+	}
+	
+	public int getCapacity() {
+		return capacity;
+	}
+	
+	/**
+	 * Count of all recorded events (including overwritten)
+	 */
+	public long getTotalCount(){
+		return position.get();
+	}
+	
+	/**
+	 * Write current events of the ring: header, class names and records from the oldest.
+	 * <br>Records which are being written during the copy are written with 0 seq and dropped by the reader.
+	 */
+	public void dump(OutputStream os) throws IOException {
+		
+		String[] names;
+		synchronized (classNames) {
+			names = classNames.toArray(new String[classNames.size()]);
+		}
+		
+		long last = position.get();
+		long first = Math.max(0, last - capacity);
+		int count = (int)(last - first);
+		byte[] records = new byte[count * RECORD_SIZE];
+		ByteBuffer buf = ByteBuffer.wrap(records);
+		for(int i = 0; i < count; i++){
+			int index = (int)((first + i) % capacity) * LONGS_PER_RECORD;
+			
+			//seqlock: the slot is valid if its seq is the same before and after reading of the payload
+			long seqBefore = ring.get(index);
+			long nanos = ring.get(index + 1);
+			long ids = ring.get(index + 2);
+			long statusAndType = ring.get(index + 3);
+			long seqAfter = ring.get(index);
+			
+			//0 seq is dropped by the reader
+			int offset = i * RECORD_SIZE;
+			buf.putLong(offset, seqBefore == seqAfter? seqBefore : 0);
+			buf.putLong(offset + 8, nanos);
+			buf.putLong(offset + 16, ids);
+			buf.putLong(offset + 24, statusAndType);
+		}
+		
+		DataOutputStream out = new DataOutputStream(os);
+		out.writeInt(MAGIC);
+		out.writeInt(VERSION);
+		out.writeInt(RECORD_SIZE);
+		out.writeInt(names.length);
+		for(String name : names){
+			out.writeUTF(name);
+		}
+		out.writeLong(first);
+		out.writeInt(count);
+		out.write(records);
+		out.flush();
+	}
+	
+	public void dump(AbstractFileStorage storage, String path) throws Exception {
+		storage.writeFile(path, true, new OutputStreamCallback() {
+			
+			@Override
+			public void onOpenStream(FileOutputStream os) throws Exception {
+				dump(os);
+			}
+		});
+	}
+	
+	/**
+	 * Dump the ring on uncaught exception of any thread, 
+	 * then call the previous default handler
+	 */
+	public void dumpOnUncaughtException(final AbstractFileStorage storage, final String path){
+		
+		final UncaughtExceptionHandler prev = Thread.getDefaultUncaughtExceptionHandler();
+		Thread.setDefaultUncaughtExceptionHandler(new UncaughtExceptionHandler() {
+			
+			@Override
+			public void uncaughtException(Thread thread, Throwable ex) {
+				try {
+					dump(storage, path);
+				}catch (Throwable t) {
+					log.error("can't dump flight recorder to "+path, t);
+				}
+				if(prev != null){
+					prev.uncaughtException(thread, ex);
+				}
+			}
+		});
+	}
+
+}
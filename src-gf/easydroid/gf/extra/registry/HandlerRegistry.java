@@ -0,0 +1,47 @@
+/*
+ * Copyright 2012 Evgeny Dolganov (evgenij.dolganov@gmail.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package easydroid.gf.extra.registry;
+
+import java.util.List;
+
+/**
+ * Static list of handler, interceptor and filter types known at compile time.
+ * <br>Implementation is generated by <tt>easydroid.gf.apt.RegistryProcessor</tt>
+ * so the types can be put into an <tt>Engine</tt> without package scanning:
+ * <pre>
+ * javac -processorpath easy-android-apt.jar ...
+ * 
+ * Engine engine = new Engine();
+ * engine.loadRegistry();
+ * </pre>
+ * 
+ * @see easydroid.gf.core.Engine#loadRegistry()
+ * @see easydroid.gf.service.DeployService#putRegistry(HandlerRegistry)
+ */
+public interface HandlerRegistry {
+	
+	/**
+	 * Class name of generated registry if processor option <tt>gf.registry</tt> is not set
+	 */
+	public static final String DEFAULT_CLASS_NAME = "easydroid.gf.generated.GfHandlerRegistry";
+	
+	List<Class<?>> getHandlers();
+	
+	List<Class<?>> getInterceptors();
+	
+	List<Class<?>> getFilters();
+
+}
@@ -0,0 +1,35 @@
+/*
+ * Copyright 2012 Evgeny Dolganov (evgenij.dolganov@gmail.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package easydroid.gf.extra.registry;
+
+import java.util.List;
+
+/**
+ * {@link HandlerRegistry} with index of handler names by action types,
+ * so handlers of an action can be found without loading of all registered types.
+ * <br>Implementation is generated by <tt>easydroid.gf.apt.RegistryProcessor</tt>.
+ * 
+ * @see easydroid.gf.extra.resolver.RegistryResolver
+ */
+public interface IndexedHandlerRegistry extends HandlerRegistry {
+	
+	/**
+	 * @param actionTypeName name of a type from <tt>&#064;Mapping</tt> (as {@link Class#getName()})
+	 * @return names of handlers mapped to exactly this type or empty list
+	 */
+	List<String> getHandlerNames(String actionTypeName);
+
+}
@@ -0,0 +1,86 @@
+/*
+ * Copyright 2012 Evgeny Dolganov (evgenij.dolganov@gmail.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package easydroid.gf.extra.registry;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import easydroid.gf.Filter;
+import easydroid.gf.Handler;
+import easydroid.gf.Interceptor;
+import easydroid.gf.annotation.Mapping;
+
+/**
+ * {@link HandlerRegistry} with lists of types
+ */
+public class SimpleHandlerRegistry implements HandlerRegistry {
+	
+	public final List<Class<?>> handlers;
+	public final List<Class<?>> interceptors;
+	public final List<Class<?>> filters;
+	
+	public SimpleHandlerRegistry(List<Class<?>> handlers, List<Class<?>> interceptors, List<Class<?>> filters) {
+		this.handlers = handlers;
+		this.interceptors = interceptors;
+		this.filters = filters;
+	}
+	
+	/**
+	 * Select all filters and <tt>&#064;Mapping</tt> handlers and interceptors from types
+	 * (as {@link easydroid.gf.service.DeployService#scanAndPut(String)} does for scanned classes)
+	 */
+	public static SimpleHandlerRegistry of(Collection<Class<?>> types){
+		
+		ArrayList<Class<?>> filters = new ArrayList<Class<?>>();
+		ArrayList<Class<?>> interceptors = new ArrayList<Class<?>>();
+		ArrayList<Class<?>> handlers = new ArrayList<Class<?>>();
+		for (Class<?> type : types) {
+			
+			if(Filter.class.isAssignableFrom(type)){
+				filters.add(type);
+				continue;
+			}
+			
+			Mapping mapping = type.getAnnotation(Mapping.class);
+			if(mapping != null){
+				if(Handler.class.isAssignableFrom(type)){
+					handlers.add(type);
+				}
+				else if(Interceptor.class.isAssignableFrom(type)){
+					interceptors.add(type);
+				}
+			}
+		}
+		return new SimpleHandlerRegistry(handlers, interceptors, filters);
+	}
+
+	@Override
+	public List<Class<?>> getHandlers() {
+		return handlers;
+	}
+
+	@Override
+	public List<Class<?>> getInterceptors() {
+		return interceptors;
+	}
+
+	@Override
+	public List<Class<?>> getFilters() {
+		return filters;
+	}
+
+}
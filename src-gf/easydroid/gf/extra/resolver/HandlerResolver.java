@@ -0,0 +1,53 @@
+/*
+ * Copyright 2012 Evgeny Dolganov (evgenij.dolganov@gmail.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package easydroid.gf.extra.resolver;
+
+import easydroid.gf.extra.registry.HandlerRegistry;
+
+/**
+ * Lazy resolver of handlers for action types without deployed handler.
+ * <br>On first invoke of such action <tt>Engine</tt> puts the resolved types and continues the invocation.
+ * So only used action types are deployed.
+ * <p>Example:
+ * <pre>
+ * Engine engine = new Engine();
+ * engine.setConfig(HandlerResolverKey.class, new NamingResolver("{package}.handler.{name}Handler"));
+ * engine.invoke(new SomeAction()); //some.package.handler.SomeActionHandler is put here
+ * </pre>
+ * 
+ * @see RegistryResolver
+ * @see NamingResolver
+ * @see PackageScanResolver
+ * @see easydroid.gf.key.HandlerResolverKey
+ */
+public interface HandlerResolver {
+	
+	/**
+	 * Called under deploy lock, only one call at a time.
+	 * @param actionType type of action without handler
+	 * @return handlers, interceptors and filters to put or null if nothing is found
+	 */
+	HandlerRegistry resolve(Class<?> actionType);
+	
+	/**
+	 * Called under deploy lock after types of {@link #resolve(Class)} are put into <tt>Engine</tt>.
+	 * <br>Not called if <tt>resolve</tt> returned null or the put failed: the same types can be resolved again.
+	 * @param actionType type of action from <tt>resolve</tt> call
+	 * @param resolved result of <tt>resolve</tt> call
+	 */
+	void onPut(Class<?> actionType, HandlerRegistry resolved);
+
+}
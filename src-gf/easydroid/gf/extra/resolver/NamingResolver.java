@@ -0,0 +1,85 @@
+/*
+ * Copyright 2012 Evgeny Dolganov (evgenij.dolganov@gmail.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package easydroid.gf.extra.resolver;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import easydroid.gf.Handler;
+import easydroid.gf.annotation.Mapping;
+import easydroid.gf.extra.registry.HandlerRegistry;
+import easydroid.gf.extra.registry.SimpleHandlerRegistry;
+
+/**
+ * Resolver by naming convention of handler classes.
+ * <br>Patterns are checked by order, <tt>{package}</tt> is replaced by package of action, 
+ * <tt>{name}</tt> by simple name of action. Default pattern is <tt>"{package}.{name}Handler"</tt>.
+ * <p>Example:
+ * <pre>
+ * //some.package.GetUserAction -&gt; some.package.handler.GetUserActionHandler
+ * engine.setConfig(HandlerResolverKey.class, new NamingResolver("{package}.handler.{name}Handler"));
+ * </pre>
+ */
+public class NamingResolver implements HandlerResolver {
+	
+	public static final String DEFAULT_PATTERN = "{package}.{name}Handler";
+	
+	private final List<String> patterns;
+	
+	public NamingResolver() {
+		this(DEFAULT_PATTERN);
+	}
+	
+	public NamingResolver(String... patterns) {
+		ArrayList<String> list = new ArrayList<String>();
+		Collections.addAll(list, patterns);
+		this.patterns = Collections.unmodifiableList(list);
+	}
+
+	@Override
+	public HandlerRegistry resolve(Class<?> actionType) {
+		
+		Package pack = actionType.getPackage();
+		String packageName = pack == null? "" : pack.getName();
+		String name = actionType.getSimpleName();
+		
+		for (String pattern : patterns) {
+			String className = pattern.replace("{package}", packageName).replace("{name}", name);
+			if(className.startsWith(".")){
+				className = className.substring(1);
+			}
+			Class<?> type;
+			try {
+				type = Class.forName(className, false, actionType.getClassLoader());
+			}catch (ClassNotFoundException e) {
+				continue;
+			}
+			if(Handler.class.isAssignableFrom(type) && type.isAnnotationPresent(Mapping.class)){
+				List<Class<?>> handlers = Collections.<Class<?>>singletonList(type);
+				List<Class<?>> empty = Collections.emptyList();
+				return new SimpleHandlerRegistry(handlers, empty, empty);
+			}
+		}
+		return null;
+	}
+	
+	@Override
+	public void onPut(Class<?> actionType, HandlerRegistry resolved) {
+		//nothing to remember
+	}
+
+}
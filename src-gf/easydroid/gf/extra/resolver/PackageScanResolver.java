@@ -0,0 +1,64 @@
+/*
+ * Copyright 2012 Evgeny Dolganov (evgenij.dolganov@gmail.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package easydroid.gf.extra.resolver;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+import easydroid.gf.InvocationObject;
+import easydroid.gf.extra.registry.HandlerRegistry;
+import easydroid.gf.extra.registry.SimpleHandlerRegistry;
+import easydroid.gf.extra.scan.ClassScanner;
+
+/**
+ * Resolver by scanning of action's package only (with sub packages).
+ * Found types are put like in <tt>scanAndPut</tt>. Every package is scanned once.
+ * <p>Example:
+ * <pre>
+ * engine.setConfig(HandlerResolverKey.class, new PackageScanResolver(new AndroidClassScanner()));
+ * </pre>
+ */
+public class PackageScanResolver implements HandlerResolver {
+	
+	private final ClassScanner scanner;
+	private final Set<String> scanned = new HashSet<String>();
+	
+	public PackageScanResolver(ClassScanner scanner) {
+		this.scanner = scanner;
+	}
+
+	@Override
+	public synchronized HandlerRegistry resolve(Class<?> actionType) {
+		
+		Package pack = actionType.getPackage();
+		if(pack == null || scanned.contains(pack.getName())){
+			return null;
+		}
+		
+		Set<Class<?>> types = scanner.getClasses(pack.getName(), InvocationObject.class);
+		if(types == null){
+			types = Collections.emptySet();
+		}
+		return SimpleHandlerRegistry.of(types);
+	}
+	
+	@Override
+	public synchronized void onPut(Class<?> actionType, HandlerRegistry resolved) {
+		scanned.add(actionType.getPackage().getName());
+	}
+
+}
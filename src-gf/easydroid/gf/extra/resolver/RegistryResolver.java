@@ -0,0 +1,146 @@
+/*
+ * Copyright 2012 Evgeny Dolganov (evgenij.dolganov@gmail.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package easydroid.gf.extra.resolver;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import easydroid.gf.annotation.Mapping;
+import easydroid.gf.extra.registry.HandlerRegistry;
+import easydroid.gf.extra.registry.IndexedHandlerRegistry;
+import easydroid.gf.extra.registry.SimpleHandlerRegistry;
+
+/**
+ * Resolver by compile-time {@link HandlerRegistry}: 
+ * puts only registered handlers mapped to the action type.
+ * <br>Handlers of {@link IndexedHandlerRegistry} (generated registry) are looked up by names,
+ * so only handlers of invoked actions are loaded. Other registries load all handler types on the first call.
+ * <br>All registered interceptors and filters are put with the first resolved action,
+ * so they are applied to all actions invoked after it (not only to resolved ones).
+ * Use <tt>putFilters=false</tt> for putting registered filters by yourself.
+ * <p>Example:
+ * <pre>
+ * engine.setConfig(HandlerResolverKey.class, new RegistryResolver(new GfHandlerRegistry()));
+ * </pre>
+ */
+public class RegistryResolver implements HandlerResolver {
+	
+	private final HandlerRegistry registry;
+	private final boolean putFilters;
+	private boolean commonTypesPut;
+	
+	public RegistryResolver(HandlerRegistry registry) {
+		this(registry, true);
+	}
+	
+	/**
+	 * @param putFilters put registered filters with the first resolved action or ignore them
+	 */
+	public RegistryResolver(HandlerRegistry registry, boolean putFilters) {
+		this.registry = registry;
+		this.putFilters = putFilters;
+	}
+
+	@Override
+	public synchronized HandlerRegistry resolve(Class<?> actionType) {
+		
+		List<Class<?>> handlers = registry instanceof IndexedHandlerRegistry
+				? getIndexed((IndexedHandlerRegistry)registry, actionType)
+				: getMapped(registry.getHandlers(), actionType);
+		if(handlers.isEmpty()){
+			return null;
+		}
+		
+		//interceptors can be mapped to other targets of the handlers, so put them all
+		List<Class<?>> interceptors = null;
+		List<Class<?>> filters = null;
+		if( ! commonTypesPut){
+			interceptors = registry.getInterceptors();
+			if(putFilters){
+				filters = registry.getFilters();
+			}
+		}
+		if(interceptors == null){
+			interceptors = Collections.emptyList();
+		}
+		if(filters == null){
+			filters = Collections.emptyList();
+		}
+		
+		return new SimpleHandlerRegistry(handlers, interceptors, filters);
+	}
+	
+	@Override
+	public synchronized void onPut(Class<?> actionType, HandlerRegistry resolved) {
+		commonTypesPut = true;
+	}
+	
+	/**
+	 * Load only handlers mapped to the action type or its super types
+	 */
+	private static List<Class<?>> getIndexed(IndexedHandlerRegistry registry, Class<?> actionType){
+		
+		LinkedHashSet<Class<?>> targets = new LinkedHashSet<Class<?>>();
+		collectTypes(actionType, targets);
+		
+		ClassLoader loader = registry.getClass().getClassLoader();
+		LinkedHashSet<Class<?>> out = new LinkedHashSet<Class<?>>();
+		for(Class<?> target : targets){
+			for(String name : registry.getHandlerNames(target.getName())){
+				try {
+					out.add(Class.forName(name, true, loader));
+				}catch (ClassNotFoundException e) {
+					throw new IllegalStateException("can't load handler "+name+" of registry "+registry.getClass().getName(), e);
+				}
+			}
+		}
+		return new ArrayList<Class<?>>(out);
+	}
+	
+	private static void collectTypes(Class<?> type, Set<Class<?>> out){
+		if(type == null || ! out.add(type)){
+			return;
+		}
+		collectTypes(type.getSuperclass(), out);
+		for(Class<?> inter : type.getInterfaces()){
+			collectTypes(inter, out);
+		}
+	}
+	
+	private static List<Class<?>> getMapped(List<Class<?>> types, Class<?> actionType){
+		ArrayList<Class<?>> out = new ArrayList<Class<?>>();
+		if(types == null){
+			return out;
+		}
+		for (Class<?> type : types) {
+			Mapping mapping = type.getAnnotation(Mapping.class);
+			if(mapping == null){
+				continue;
+			}
+			for (Class<?> target : mapping.value()) {
+				if(target.isAssignableFrom(actionType)){
+					out.add(type);
+					break;
+				}
+			}
+		}
+		return out;
+	}
+
+}
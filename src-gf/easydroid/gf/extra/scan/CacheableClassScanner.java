@@ -0,0 +1,47 @@
+/*
+ * Copyright 2012 Evgeny Dolganov (evgenij.dolganov@gmail.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package easydroid.gf.extra.scan;
+
+import java.io.File;
+import java.util.List;
+
+/**
+ * {@link ClassScanner} which knows binaries it scans.
+ * Results of such scanner can be stored in {@link ScanCache} until binaries are changed.
+ *
+ * @see easydroid.gf.key.scan.ScanCacheDir
+ */
+public interface CacheableClassScanner extends ClassScanner {
+	
+	/**
+	 * @param packageRoot some package (for example "com.my.package")
+	 * @return apk or jar files with classes of packageRoot 
+	 * or null if they are unknown (results can't be cached)
+	 */
+	List<File> getSources(String packageRoot);
+	
+	/**
+	 * @return ClassLoader for loading of cached classes
+	 */
+	ClassLoader getClassLoader();
+	
+	/**
+	 * @return default directory of {@link ScanCache} files 
+	 * or null if the scanner has no such directory (results are not cached)
+	 */
+	File getCacheDir();
+
+}
@@ -0,0 +1,243 @@
+/*
+ * Copyright 2012 Evgeny Dolganov (evgenij.dolganov@gmail.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package easydroid.gf.extra.scan;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * File cache of {@link ClassScanner} results.
+ * <br>Every result is stored with fingerprint of scanned binaries (path, size, mtime and CRC of classes).
+ * So the next start with the same apk or jars loads the stored classes without scanning.
+ * <p>Example:
+ * <pre>
+ * ScanCache cache = new ScanCache(dir);
+ * String fingerprint = ScanCache.getFingerprint(scanner.getSources(packageRoot));
+ * Set&lt;Class&lt;?&gt;&gt; classes = cache.load(packageRoot, parentClass, fingerprint, classLoader);
+ * if(classes == null){
+ *   classes = scanner.getClasses(packageRoot, parentClass);
+ *   cache.save(packageRoot, parentClass, fingerprint, classes);
+ * }
+ * </pre>
+ *
+ * @see CacheableClassScanner
+ * @see easydroid.gf.key.scan.ScanCacheDir
+ */
+public class ScanCache {
+	
+	private static final int MAGIC = 0x47465343; //"GFSC"
+	private static final int VERSION = 1;
+	
+	private final File dir;
+	
+	public ScanCache(File dir) {
+		this.dir = dir;
+	}
+	
+	public File getDir() {
+		return dir;
+	}
+	
+	/**
+	 * @return stored classes or null if there is no actual cache 
+	 * for these packageRoot, parentClass and fingerprint
+	 */
+	public Set<Class<?>> load(String packageRoot, Class<?> parentClass, 
+			String fingerprint, ClassLoader classLoader) throws IOException {
+		
+		File file = getFile(packageRoot, parentClass);
+		if( ! file.isFile()){
+			return null;
+		}
+		
+		List<String> names;
+		DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+		try {
+			if(in.readInt() != MAGIC || in.readInt() != VERSION){
+				return null;
+			}
+			if( ! packageRoot.equals(in.readUTF())
+					|| ! parentClass.getName().equals(in.readUTF())
+					|| ! fingerprint.equals(in.readUTF())){
+				return null;
+			}
+			int count = in.readInt();
+			names = new ArrayList<String>(count);
+			for (int i = 0; i < count; i++) {
+				names.add(in.readUTF());
+			}
+		}finally {
+			in.close();
+		}
+		
+		HashSet<Class<?>> out = new HashSet<Class<?>>();
+		for (String name : names) {
+			try {
+				out.add(Class.forName(name, false, classLoader));
+			}catch (ClassNotFoundException e) {
+				//stale cache
+				return null;
+			}
+		}
+		return out;
+	}
+	
+	/**
+	 * Rewrite cache file atomically: write temp file and rename it.
+	 */
+	public void save(String packageRoot, Class<?> parentClass, 
+			String fingerprint, Set<Class<?>> classes) throws IOException {
+		
+		if( ! dir.isDirectory() && ! dir.mkdirs() && ! dir.isDirectory()){
+			throw new IOException("can't create dir "+dir);
+		}
+		
+		File file = getFile(packageRoot, parentClass);
+		File tmp = File.createTempFile(file.getName(), ".tmp", dir);
+		boolean done = false;
+		try {
+			
+			DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmp)));
+			try {
+				out.writeInt(MAGIC);
+				out.writeInt(VERSION);
+				out.writeUTF(packageRoot);
+				out.writeUTF(parentClass.getName());
+				out.writeUTF(fingerprint);
+				out.writeInt(classes.size());
+				for (Class<?> type : classes) {
+					out.writeUTF(type.getName());
+				}
+			}finally {
+				out.close();
+			}
+			
+			if( ! tmp.renameTo(file)){
+				//some file systems can't rename to existing file
+				file.delete();
+				if( ! tmp.renameTo(file)){
+					throw new IOException("can't rename "+tmp+" to "+file);
+				}
+			}
+			done = true;
+			
+		}finally {
+			if( ! done){
+				tmp.delete();
+			}
+		}
+	}
+	
+	/**
+	 * Remove all cache files
+	 */
+	public void clear(){
+		File[] files = dir.listFiles();
+		if(files == null){
+			return;
+		}
+		for (File file : files) {
+			if(file.getName().startsWith("scan-")){
+				file.delete();
+			}
+		}
+	}
+	
+	File getFile(String packageRoot, Class<?> parentClass){
+		String key = packageRoot+"|"+parentClass.getName();
+		return new File(dir, "scan-"+Integer.toHexString(key.hashCode())+".bin");
+	}
+	
+	
+	/**
+	 * Fingerprint of binaries: path, size, mtime and CRC of classes of every file.
+	 * @return fingerprint or null if sources are unknown or they are not files (classes dir for example)
+	 */
+	public static String getFingerprint(List<File> sources) throws IOException {
+		
+		if(sources == null || sources.isEmpty()){
+			return null;
+		}
+		
+		StringBuilder sb = new StringBuilder();
+		for (File file : sources) {
+			if( ! file.isFile()){
+				return null;
+			}
+			sb.append(file.getAbsolutePath())
+				.append(':').append(file.length())
+				.append(':').append(file.lastModified())
+				.append(':').append(Long.toHexString(getClassesCrc(file)))
+				.append('\n');
+		}
+		
+		try {
+			MessageDigest digest = MessageDigest.getInstance("SHA-1");
+			byte[] hash = digest.digest(sb.toString().getBytes("UTF-8"));
+			StringBuilder out = new StringBuilder(hash.length * 2);
+			for (byte b : hash) {
+				out.append(Character.forDigit((b >> 4) & 0xF, 16));
+				out.append(Character.forDigit(b & 0xF, 16));
+			}
+			return out.toString();
+		}catch (Exception e) {
+			throw new IOException("can't create fingerprint: "+e);
+		}
+	}
+	
+	/**
+	 * CRC of all dex and class entries from zip central directory. 
+	 * It doesn't read the entries data.
+	 */
+	private static long getClassesCrc(File file) throws IOException {
+		
+		CRC32 crc = new CRC32();
+		ZipFile zip = new ZipFile(file);
+		try {
+			Enumeration<? extends ZipEntry> entries = zip.entries();
+			while(entries.hasMoreElements()){
+				ZipEntry entry = entries.nextElement();
+				String name = entry.getName();
+				if( ! name.endsWith(".dex") && ! name.endsWith(".class")){
+					continue;
+				}
+				long value = entry.getCrc();
+				for (int i = 0; i < 8; i++) {
+					crc.update((int)(value >>> (i * 8)));
+				}
+			}
+		}finally {
+			zip.close();
+		}
+		return crc.getValue();
+	}
+
+}
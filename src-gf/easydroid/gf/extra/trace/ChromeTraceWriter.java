@@ -0,0 +1,143 @@
+/*
+ * Copyright 2012 Evgeny Dolganov (evgenij.dolganov@gmail.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package easydroid.gf.extra.trace;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.List;
+
+import easydroid.gf.extra.util.FormatUtil;
+
+/**
+ * Streams traces into Chrome trace-event JSON 
+ * (can be opened in <tt>chrome://tracing</tt> or Perfetto).
+ * <br>Each trace and each handler, interceptor or filter becomes a complete event.
+ * Branches of parallel sub invocations are shown in own lanes.
+ * <br>Example of usage:
+ * <pre>
+ * ChromeTraceWriter writer = ChromeTraceWriter.open(file);
+ * try {
+ *     for(Trace trace : engine.getSampledTraces()){
+ *         writer.write(trace);
+ *     }
+ * } finally {
+ *     writer.close();
+ * }</pre>
+ */
+public class ChromeTraceWriter implements Closeable {
+	
+	private final Writer out;
+	private boolean hasEvents;
+	private boolean closed;
+	//nanoTime of the first written trace, times of events are relative to it
+	private long baseNanos;
+	private int traceCount;
+	private int lastLane;
+	
+	public static ChromeTraceWriter open(File file) throws IOException {
+		return new ChromeTraceWriter(new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file), "UTF-8")));
+	}
+	
+	public ChromeTraceWriter(Writer out) throws IOException {
+		this.out = out;
+		out.write("{\"traceEvents\":[");
+	}
+	
+	public void write(Trace trace) throws IOException {
+		
+		if(closed){
+			throw new IllegalStateException("writer is closed");
+		}
+		if(traceCount == 0){
+			baseNanos = trace.getStartNanos();
+		}
+		traceCount++;
+		
+		int lane = ++lastLane;
+		writeEvent(TraceUtil.getName(trace), "action", trace, lane);
+		writeItems(trace, lane);
+	}
+	
+	private void writeItems(TraceLevel level, int lane) throws IOException {
+		List<TraceLevelItem> items = level.getChildrenItems();
+		for(int i = 0; i < items.size(); i++){
+			TraceLevelItem item = items.get(i);
+			writeEvent(TraceUtil.getName(item), "handler", item, lane);
+			
+			List<TraceElement> subLevels = item.getChildren();
+			for(int j = 0; j < subLevels.size(); j++){
+				TraceLevel subLevel = (TraceLevel)subLevels.get(j);
+				writeItems(subLevel, subLevel.isParallel()? ++lastLane : lane);
+			}
+		}
+	}
+	
+	private void writeEvent(String name, String category, TraceElement elem, int lane) throws IOException {
+		
+		if(hasEvents){
+			out.write(',');
+		}
+		hasEvents = true;
+		
+		out.write("\n{\"name\":");
+		FormatUtil.appendJsonString(out, name);
+		out.write(",\"cat\":\"");
+		out.write(category);
+		out.write("\",\"ph\":\"X\",\"pid\":");
+		out.write(Integer.toString(traceCount));
+		out.write(",\"tid\":");
+		out.write(Integer.toString(lane));
+		out.write(",\"ts\":");
+		writeMicros(elem.getStartNanos() - baseNanos);
+		out.write(",\"dur\":");
+		writeMicros(elem.getDurationNanos());
+		out.write(",\"args\":{\"endStatus\":\"");
+		out.write(String.valueOf(elem.getEndStatus()));
+		out.write('"');
+		Throwable t = elem.getThrowable();
+		if(t != null){
+			out.write(",\"error\":");
+			FormatUtil.appendJsonString(out, t.toString());
+		}
+		out.write("}}");
+	}
+	
+	private void writeMicros(long nanos) throws IOException {
+		FormatUtil.appendThousandths(out, nanos);
+	}
+	
+	/**
+	 * Finish the JSON and close the underlying writer
+	 */
+	@Override
+	public void close() throws IOException {
+		if(closed){
+			return;
+		}
+		closed = true;
+		try {
+			out.write("\n]}");
+		}finally {
+			out.close();
+		}
+	}
+
+}
@@ -0,0 +1,148 @@
+/*
+ * Copyright 2012 Evgeny Dolganov (evgenij.dolganov@gmail.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package easydroid.gf.extra.trace;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Streams traces into folded-stack format for flame graphs: 
+ * one line per stack with its self time in microseconds, 
+ * e.g. <tt>app.SomeAction;app.SomeFilter;app.SomeHandler 120</tt>.
+ * <br>Lines are not merged, flame graph tools sum equal stacks.
+ * Self time of an element with parallel branches can be less than the sum of branches,
+ * in this case it is not written.
+ */
+public class FoldedStackWriter implements Closeable {
+	
+	private final Writer out;
+	private final ArrayList<String> stack = new ArrayList<String>();
+	
+	public static FoldedStackWriter open(File file) throws IOException {
+		return new FoldedStackWriter(new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file), "UTF-8")));
+	}
+	
+	public FoldedStackWriter(Writer out) {
+		this.out = out;
+	}
+	
+	public void write(Trace trace) throws IOException {
+		
+		stack.clear();
+		stack.add(TraceUtil.getName(trace));
+		writeLevel(trace);
+	}
+	
+	/**
+	 * Stack must contain the path of the level's owner, self time of the trace is written here.
+	 * @see TraceUtil#getChainParents(List)
+	 */
+	private void writeLevel(TraceLevel level) throws IOException {
+		
+		List<TraceLevelItem> items = level.getChildrenItems();
+		int count = items.size();
+		int[] parents = TraceUtil.getChainParents(items);
+		int[] depth = new int[count];
+		long[] selfNanos = new long[count];
+		
+		long ownerSelfNanos = level.getDurationNanos();
+		for(int i = 0; i < count; i++){
+			TraceLevelItem item = items.get(i);
+			long duration = item.getDurationNanos();
+			int parent = parents[i];
+			if(parent == -1){
+				ownerSelfNanos -= duration;
+			} else {
+				selfNanos[parent] -= duration;
+				depth[i] = depth[parent] + 1;
+			}
+			selfNanos[i] += duration;
+			List<TraceElement> subLevels = item.getChildren();
+			for(int j = 0; j < subLevels.size(); j++){
+				selfNanos[i] -= subLevels.get(j).getDurationNanos();
+			}
+		}
+		
+		if(level instanceof Trace){
+			writeLine(ownerSelfNanos);
+		}
+		
+		int base = stack.size();
+		for(int i = 0; i < count; i++){
+			TraceLevelItem item = items.get(i);
+			truncate(base + depth[i]);
+			stack.add(TraceUtil.getName(item));
+			writeLine(selfNanos[i]);
+			
+			List<TraceElement> subLevels = item.getChildren();
+			for(int j = 0; j < subLevels.size(); j++){
+				writeLevel((TraceLevel)subLevels.get(j));
+			}
+		}
+		truncate(base);
+	}
+	
+	private void truncate(int size){
+		while(stack.size() > size){
+			stack.remove(stack.size()-1);
+		}
+	}
+	
+	private void writeLine(long selfNanos) throws IOException {
+		
+		long micros = Math.max(0, selfNanos) / 1000;
+		if(micros == 0){
+			return;
+		}
+		for(int i = 0; i < stack.size(); i++){
+			if(i > 0){
+				out.write(';');
+			}
+			writeFrame(stack.get(i));
+		}
+		out.write(' ');
+		out.write(Long.toString(micros));
+		out.write('\n');
+	}
+	
+	//';' and spaces are separators of the format
+	private void writeFrame(String name) throws IOException {
+		for(int i = 0; i < name.length(); i++){
+			char ch = name.charAt(i);
+			if(ch == ';' || ch == ' ' || ch == '\n'){
+				ch = '_';
+			}
+			out.write(ch);
+		}
+	}
+	
+	public void flush() throws IOException {
+		out.flush();
+	}
+
+	@Override
+	public void close() throws IOException {
+		out.close();
+	}
+
+}
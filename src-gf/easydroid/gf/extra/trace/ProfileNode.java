@@ -0,0 +1,190 @@
+/*
+ * Copyright 2012 Evgeny Dolganov (evgenij.dolganov@gmail.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package easydroid.gf.extra.trace;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+import easydroid.gf.extra.metrics.LatencyHistogram;
+import easydroid.gf.extra.util.FormatUtil;
+
+/**
+ * Node of {@link TraceProfile}: merged values of all trace elements with the same path.
+ * <br>Nodes returned by the profile are snapshots and are not changed by next merges.
+ */
+public class ProfileNode {
+	
+	/** name of nodes for paths over the profile's limit */
+	public static final String TRUNCATED = "[truncated]";
+	
+	public final String name;
+	
+	long count;
+	long errors;
+	long totalNanos;
+	long selfNanos;
+	long maxNanos;
+	long[] buckets;
+	LinkedHashMap<String, ProfileNode> children;
+	
+	ProfileNode(String name) {
+		this.name = name;
+	}
+	
+	void add(long durationNanos, long selfNanos, boolean isError){
+		if(durationNanos < 0){
+			durationNanos = 0;
+		}
+		count++;
+		if(isError){
+			errors++;
+		}
+		totalNanos += durationNanos;
+		this.selfNanos += Math.max(0, selfNanos);
+		maxNanos = Math.max(maxNanos, durationNanos);
+		if(buckets == null){
+			buckets = new long[LatencyHistogram.BUCKETS];
+		}
+		buckets[LatencyHistogram.bucketIndex(durationNanos)]++;
+	}
+	
+	ProfileNode getChild(String name){
+		return children == null? null : children.get(name);
+	}
+	
+	ProfileNode addChild(String name){
+		if(children == null){
+			children = new LinkedHashMap<String, ProfileNode>();
+		}
+		ProfileNode child = new ProfileNode(name);
+		children.put(name, child);
+		return child;
+	}
+	
+	ProfileNode copy(){
+		ProfileNode out = new ProfileNode(name);
+		out.count = count;
+		out.errors = errors;
+		out.totalNanos = totalNanos;
+		out.selfNanos = selfNanos;
+		out.maxNanos = maxNanos;
+		out.buckets = buckets == null? null : buckets.clone();
+		if(children != null){
+			out.children = new LinkedHashMap<String, ProfileNode>();
+			for(ProfileNode child : children.values()){
+				out.children.put(child.name, child.copy());
+			}
+		}
+		return out;
+	}
+	
+	public long getCount() {
+		return count;
+	}
+
+	public long getErrors() {
+		return errors;
+	}
+
+	public long getTotalNanos() {
+		return totalNanos;
+	}
+
+	/**
+	 * Total time without time of child nodes
+	 */
+	public long getSelfNanos() {
+		return selfNanos;
+	}
+
+	public long getMaxNanos() {
+		return maxNanos;
+	}
+	
+	/**
+	 * @param percent from 0 to 100
+	 * @return approximate percentile of durations in nanos
+	 * @see LatencyHistogram
+	 */
+	public long getPercentile(double percent){
+		if(buckets == null){
+			return 0;
+		}
+		return new LatencyHistogram.Counts(buckets, maxNanos, totalNanos).getPercentile(percent);
+	}
+	
+	/**
+	 * Children sorted by total time descending
+	 */
+	public List<ProfileNode> getChildren(){
+		if(children == null){
+			return new ArrayList<ProfileNode>();
+		}
+		ArrayList<ProfileNode> out = new ArrayList<ProfileNode>(children.values());
+		Collections.sort(out, new Comparator<ProfileNode>() {
+			@Override
+			public int compare(ProfileNode a, ProfileNode b) {
+				return a.totalNanos < b.totalNanos? 1 : (a.totalNanos == b.totalNanos? 0 : -1);
+			}
+		});
+		return out;
+	}
+	
+	/**
+	 * @return child node by name of the owner type or null
+	 */
+	public ProfileNode findChild(String name){
+		return getChild(name);
+	}
+	
+	/**
+	 * Indented tree with times in milliseconds
+	 */
+	public String toText(){
+		StringBuilder sb = new StringBuilder();
+		appendText(sb, this, 0);
+		return sb.toString();
+	}
+	
+	private static void appendText(StringBuilder sb, ProfileNode node, int level){
+		for(int i = 0; i < level; i++){
+			sb.append('\t');
+		}
+		sb.append(node.name)
+			.append(" (count=").append(node.count)
+			.append(", errors=").append(node.errors)
+			.append(", total=").append(FormatUtil.toMs(node.totalNanos))
+			.append(", self=").append(FormatUtil.toMs(node.selfNanos))
+			.append(", p50=").append(FormatUtil.toMs(node.getPercentile(50)))
+			.append(", p95=").append(FormatUtil.toMs(node.getPercentile(95)))
+			.append(", p99=").append(FormatUtil.toMs(node.getPercentile(99)))
+			.append(", max=").append(FormatUtil.toMs(node.maxNanos))
+			.append(")\n");
+		for(ProfileNode child : node.getChildren()){
+			appendText(sb, child, level+1);
+		}
+	}
+	
+	@Override
+	public String toString() {
+		return "ProfileNode [name=" + name + ", count=" + count + ", totalNanos=" + totalNanos 
+				+ ", childrenCount=" + (children == null? 0 : children.size()) + "]";
+	}
+
+}
@@ -0,0 +1,131 @@
+/*
+ * Copyright 2012 Evgeny Dolganov (evgenij.dolganov@gmail.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package easydroid.gf.extra.trace;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import easydroid.gf.Action;
+import easydroid.gf.key.SlowInvocations;
+import easydroid.util.log.LogFactory;
+import easydroid.util.log.Logger;
+
+/**
+ * Rules of slow invocations reporting.
+ * <br>While an invocation is going engine records only boundaries of filters, 
+ * interceptors and handlers, trace is built only if the invocation is slower than the threshold.
+ * Reports of each action type are rate-limited by <tt>minReportInterval</tt>.
+ * <p>Example:
+ * <pre>
+ * SlowInvocationDetector detector = new SlowInvocationDetector(500, TimeUnit.MILLISECONDS);
+ * detector.setThreshold(SyncAction.class, 2, TimeUnit.SECONDS);
+ * engine.setConfig(SlowInvocations.class, detector);</pre>
+ * Without listener slow traces are written to the log.
+ * 
+ * @see SlowInvocations
+ */
+public class SlowInvocationDetector {
+	
+	private static final Logger log = LogFactory.getLog(SlowInvocationDetector.class);
+	
+	public static final long DEFAULT_REPORT_INTERVAL_MS = 10000;
+	
+	private final long thresholdNanos;
+	private final ConcurrentHashMap<Class<?>, Long> typeThresholds = new ConcurrentHashMap<Class<?>, Long>();
+	private volatile TraceListener listener;
+	private volatile long minReportIntervalNanos = TimeUnit.MILLISECONDS.toNanos(DEFAULT_REPORT_INTERVAL_MS);
+	
+	private final ConcurrentHashMap<Class<?>, AtomicLong> lastReports = new ConcurrentHashMap<Class<?>, AtomicLong>();
+	private final AtomicLong suppressedCount = new AtomicLong();
+	
+	/**
+	 * @param threshold global threshold for all action types
+	 */
+	public SlowInvocationDetector(long threshold, TimeUnit unit) {
+		this.thresholdNanos = unit.toNanos(threshold);
+	}
+	
+	/**
+	 * Threshold for the action type instead of the global one
+	 */
+	public void setThreshold(Class<?> actionType, long threshold, TimeUnit unit){
+		typeThresholds.put(actionType, unit.toNanos(threshold));
+	}
+	
+	public long getThresholdNanos(Class<?> actionType){
+		Long val = typeThresholds.get(actionType);
+		return val == null? thresholdNanos : val;
+	}
+	
+	public boolean isSlow(Class<?> actionType, long durationNanos){
+		return durationNanos >= getThresholdNanos(actionType);
+	}
+	
+	/**
+	 * @param listener receiver of slow traces, null for the log
+	 */
+	public void setListener(TraceListener listener) {
+		this.listener = listener;
+	}
+	
+	/**
+	 * Min interval between reports of one action type, 0 for no limit
+	 */
+	public void setMinReportInterval(long interval, TimeUnit unit) {
+		this.minReportIntervalNanos = unit.toNanos(interval);
+	}
+	
+	/**
+	 * Count of slow invocations which were not reported because of the rate limit
+	 */
+	public long getSuppressedCount(){
+		return suppressedCount.get();
+	}
+	
+	/**
+	 * Is report of the action type allowed now by the rate limit
+	 */
+	public boolean tryAcquireReport(Class<?> actionType){
+		
+		long now = System.nanoTime();
+		AtomicLong last = lastReports.get(actionType);
+		if(last == null){
+			AtomicLong created = new AtomicLong(now);
+			last = lastReports.putIfAbsent(actionType, created);
+			if(last == null){
+				return true;
+			}
+		}
+		
+		long prev = last.get();
+		if(now - prev >= minReportIntervalNanos && last.compareAndSet(prev, now)){
+			return true;
+		}
+		suppressedCount.incrementAndGet();
+		return false;
+	}
+	
+	public void report(Action<?, ?> action, Trace trace){
+		TraceListener listener = this.listener;
+		if(listener != null){
+			listener.onTrace(action, trace);
+			return;
+		}
+		log.warn("slow invocation of "+action.getClass().getName()+":\n"+trace);
+	}
+
+}
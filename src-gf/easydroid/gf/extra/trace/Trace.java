@@ -27,6 +27,8 @@ public class Trace extends TraceLevel {
 	
 	public final Object owner;
 	
+	private Class<?> actionType;
+	
 	public Trace() {
 		super();
 		this.owner = null;
@@ -41,9 +43,22 @@ public class Trace extends TraceLevel {
 		return owner;
 	}
 	
+	/**
+	 * Type of the traced action
+	 */
+	public Class<?> getActionType() {
+		return actionType;
+	}
+
+	public void setActionType(Class<?> actionType) {
+		this.actionType = actionType;
+	}
+	
 	@Override
 	public String toStringCurObject() {
-		return getClass().getSimpleName()+" [owner="+owner+", childrenCount="+children.size()+"]";
+		return getClass().getSimpleName()+" [owner="+owner
+				+(actionType == null? "" : ", action="+actionType.getName())
+				+", childrenCount="+children.size()+"]";
 	}
 
 	@Override
@@ -0,0 +1,80 @@
+/*
+ * Copyright 2012 Evgeny Dolganov (evgenij.dolganov@gmail.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package easydroid.gf.extra.trace;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Bounded lock-free buffer of recent traces, new traces overwrite the oldest.
+ */
+public class TraceBuffer {
+	
+	private final AtomicReferenceArray<Trace> slots;
+	private final AtomicLong count = new AtomicLong();
+	
+	public TraceBuffer(int capacity) {
+		if(capacity < 1){
+			throw new IllegalArgumentException("capacity must be positive: "+capacity);
+		}
+		slots = new AtomicReferenceArray<Trace>(capacity);
+	}
+	
+	public void add(Trace trace){
+		long index = count.getAndIncrement();
+		slots.set((int)(index % slots.length()), trace);
+	}
+	
+	public int capacity(){
+		return slots.length();
+	}
+	
+	/**
+	 * Count of all added traces (including overwritten)
+	 */
+	public long getTotalCount(){
+		return count.get();
+	}
+	
+	/**
+	 * Recent traces, newest first.
+	 * <br>With concurrent adds the result is approximate: some slots can be already overwritten.
+	 */
+	public List<Trace> getRecent(){
+		
+		int capacity = slots.length();
+		long last = count.get();
+		long first = Math.max(0, last - capacity);
+		
+		ArrayList<Trace> out = new ArrayList<Trace>((int)(last - first));
+		for(long i = last - 1; i >= first; i--){
+			Trace trace = slots.get((int)(i % capacity));
+			if(trace != null){
+				out.add(trace);
+			}
+		}
+		return out;
+	}
+	
+	public void clear(){
+		for(int i = 0; i < slots.length(); i++){
+			slots.set(i, null);
+		}
+	}
+
+}
@@ -20,23 +20,48 @@ import java.util.List;
 public abstract class TraceElement {
 	
 	
+	//System.nanoTime() values
 	private long startTime;
 	private long endTime;
 	private InvocaitonEndStatus endStatus;
 	private Throwable throwable;
 	
 	public void start(){
-		startTime = System.currentTimeMillis();
+		startTime = System.nanoTime();
 	}
 	
 	public void stop(){
-		endTime = System.currentTimeMillis();
+		endTime = System.nanoTime();
 	}
 	
+	/**
+	 * Set times of already finished element
+	 * @param startNanos value of <tt>System.nanoTime()</tt> at start
+	 * @param endNanos value of <tt>System.nanoTime()</tt> at end
+	 */
+	public void setTime(long startNanos, long endNanos){
+		startTime = startNanos;
+		endTime = endNanos;
+	}
+	
+	/**
+	 * Duration in milliseconds
+	 */
 	public long getDuration(){
+		return getDurationNanos() / 1000000;
+	}
+	
+	public long getDurationNanos(){
 		return endTime - startTime;
 	}
 	
+	/**
+	 * Value of <tt>System.nanoTime()</tt> at start, use it only for comparing with other elements
+	 */
+	public long getStartNanos(){
+		return startTime;
+	}
+	
 	public void setEndStatus(InvocaitonEndStatus endStatus){
 		this.endStatus = endStatus;
 	}
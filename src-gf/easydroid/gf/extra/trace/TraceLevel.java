@@ -25,6 +25,9 @@ public class TraceLevel extends TraceElement {
 	
 	protected List<TraceLevelItem> children = new ArrayList<TraceLevelItem>();
 	
+	//level of one branch of parallel sub invocations
+	private boolean parallel;
+	
 	public TraceLevel() {
 		super();
 	}
@@ -75,6 +78,14 @@ public class TraceLevel extends TraceElement {
 		last.addChild(child);
 	}
 	
+	public boolean isParallel() {
+		return parallel;
+	}
+
+	public void setParallel(boolean parallel) {
+		this.parallel = parallel;
+	}
+	
 	public List<TraceLevelItem> getChildrenItems(){
 		return new ArrayList<TraceLevelItem>(children);
 	}
@@ -96,7 +107,7 @@ public class TraceLevel extends TraceElement {
 	
 	@Override
 	public String toStringCurObject() {
-		return getClass().getSimpleName()+" [childrenCount="+children.size()+"]";
+		return getClass().getSimpleName()+" [childrenCount="+children.size()+(parallel? ", parallel" : "")+"]";
 	}
 
 	@Override
@@ -0,0 +1,30 @@
+/*
+ * Copyright 2012 Evgeny Dolganov (evgenij.dolganov@gmail.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package easydroid.gf.extra.trace;
+
+import easydroid.gf.Action;
+
+/**
+ * Receiver of finished root traces
+ */
+public interface TraceListener {
+	
+	/**
+	 * Called in the invocation's thread after the end of the traced invocation
+	 */
+	void onTrace(Action<?,?> action, Trace trace);
+
+}
@@ -0,0 +1,159 @@
+/*
+ * Copyright 2012 Evgeny Dolganov (evgenij.dolganov@gmail.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package easydroid.gf.extra.trace;
+
+import java.util.List;
+
+import easydroid.gf.Action;
+
+/**
+ * Call-graph profile merged from many traces.
+ * <br>Path of a node is the action type of the trace and then types of 
+ * filters, interceptors and handlers (with their sub invocations) down to the node.
+ * Profile has limit of nodes: new paths over the limit are merged 
+ * into {@link ProfileNode#TRUNCATED} child of the last known node.
+ * <p>Example:
+ * <pre>
+ * TraceProfile profile = new TraceProfile();
+ * TraceSampler sampler = TraceSampler.everyNth(100);
+ * sampler.addListener(profile);
+ * engine.setConfig(TraceSampling.class, sampler);
+ * ...
+ * System.out.println(profile.getRoot().toText());
+ * </pre>
+ */
+public class TraceProfile implements TraceListener {
+	
+	public static final int DEFAULT_MAX_NODES = 10000;
+	public static final String ROOT_NAME = "[all]";
+	
+	private final int maxNodes;
+	private ProfileNode root = new ProfileNode(ROOT_NAME);
+	private int nodesCount = 1;
+	
+	public TraceProfile() {
+		this(DEFAULT_MAX_NODES);
+	}
+	
+	/**
+	 * @param maxNodes limit of nodes, not including truncated nodes
+	 */
+	public TraceProfile(int maxNodes) {
+		if(maxNodes < 1){
+			throw new IllegalArgumentException("maxNodes must be positive: "+maxNodes);
+		}
+		this.maxNodes = maxNodes;
+	}
+	
+	@Override
+	public void onTrace(Action<?, ?> action, Trace trace) {
+		add(trace);
+	}
+	
+	public synchronized void add(Trace trace){
+		
+		long duration = trace.getDurationNanos();
+		boolean isError = trace.getEndStatus() == InvocaitonEndStatus.WITH_EXCEPTION;
+		root.add(duration, 0, isError);
+		
+		ProfileNode node = getOrCreate(root, TraceUtil.getName(trace));
+		long self = duration - mergeLevel(node, trace);
+		node.add(duration, self, isError);
+	}
+	
+	/**
+	 * @return sum of durations of the level's first items
+	 */
+	private long mergeLevel(ProfileNode owner, TraceLevel level){
+		
+		List<TraceLevelItem> items = level.getChildrenItems();
+		int count = items.size();
+		int[] parents = TraceUtil.getChainParents(items);
+		ProfileNode[] nodes = new ProfileNode[count];
+		long[] selfNanos = new long[count];
+		long firstItemsNanos = 0;
+		
+		for(int i = 0; i < count; i++){
+			TraceLevelItem item = items.get(i);
+			long duration = item.getDurationNanos();
+			int parent = parents[i];
+			if(parent == -1){
+				firstItemsNanos += duration;
+				nodes[i] = getOrCreate(owner, TraceUtil.getName(item));
+			} else {
+				selfNanos[parent] -= duration;
+				nodes[i] = getOrCreate(nodes[parent], TraceUtil.getName(item));
+			}
+			selfNanos[i] += duration;
+			
+			List<TraceElement> subLevels = item.getChildren();
+			for(int j = 0; j < subLevels.size(); j++){
+				TraceLevel subLevel = (TraceLevel)subLevels.get(j);
+				selfNanos[i] -= subLevel.getDurationNanos();
+				mergeLevel(nodes[i], subLevel);
+			}
+		}
+		
+		for(int i = 0; i < count; i++){
+			TraceLevelItem item = items.get(i);
+			nodes[i].add(item.getDurationNanos(), selfNanos[i], 
+					item.getEndStatus() == InvocaitonEndStatus.WITH_EXCEPTION);
+		}
+		return firstItemsNanos;
+	}
+	
+	private ProfileNode getOrCreate(ProfileNode parent, String name){
+		ProfileNode child = parent.getChild(name);
+		if(child != null){
+			return child;
+		}
+		if(ProfileNode.TRUNCATED.equals(parent.name)){
+			return parent;
+		}
+		if(nodesCount >= maxNodes){
+			child = parent.getChild(ProfileNode.TRUNCATED);
+			return child != null? child : parent.addChild(ProfileNode.TRUNCATED);
+		}
+		nodesCount++;
+		return parent.addChild(name);
+	}
+	
+	/**
+	 * Snapshot of the profile
+	 */
+	public synchronized ProfileNode getRoot(){
+		return root.copy();
+	}
+	
+	public synchronized int getNodesCount(){
+		return nodesCount;
+	}
+	
+	public int getMaxNodes() {
+		return maxNodes;
+	}
+	
+	public synchronized void clear(){
+		root = new ProfileNode(ROOT_NAME);
+		nodesCount = 1;
+	}
+	
+	@Override
+	public String toString() {
+		return getRoot().toText();
+	}
+
+}
@@ -0,0 +1,155 @@
+/*
+ * Copyright 2012 Evgeny Dolganov (evgenij.dolganov@gmail.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package easydroid.gf.extra.trace;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import easydroid.gf.Action;
+import easydroid.gf.key.TraceSampling;
+import easydroid.util.log.LogFactory;
+import easydroid.util.log.Logger;
+
+/**
+ * Rules of sampled tracing and buffer of sampled traces.
+ * <br>Invocation is traced if its action type is in <tt>actionTypes</tt> (or types are empty)
+ * and it's every <tt>rate</tt>-th of such invocations.
+ * Trace is saved into the buffer if its duration is not less than <tt>slowerThan</tt>.
+ * <p>Example:
+ * <pre>
+ * //trace 1 of 100 invocations, keep only slower than 20ms
+ * TraceSampler sampler = new TraceSampler(100, null, 20, TimeUnit.MILLISECONDS, 32);
+ * engine.setConfig(TraceSampling.class, sampler);
+ * ...
+ * List&lt;Trace&gt; traces = engine.getSampledTraces();
+ * </pre>
+ * <b>Note:</b> with threshold only (rate 1) every invocation is traced, 
+ * so use it with action types or rate in production.
+ * 
+ * @see TraceSampling
+ */
+public class TraceSampler implements TraceListener {
+	
+	private static final Logger log = LogFactory.getLog(TraceSampler.class);
+	
+	public static final int DEFAULT_BUFFER_SIZE = 32;
+	
+	private final int rate;
+	private final Set<Class<?>> actionTypes;
+	private final long slowerThanNanos;
+	private final TraceBuffer buffer;
+	
+	private final AtomicLong counter = new AtomicLong();
+	private final CopyOnWriteArrayList<TraceListener> listeners = new CopyOnWriteArrayList<TraceListener>();
+	
+	/**
+	 * Trace 1 of <tt>rate</tt> invocations
+	 */
+	public static TraceSampler everyNth(int rate){
+		return new TraceSampler(rate, null, 0, TimeUnit.NANOSECONDS, DEFAULT_BUFFER_SIZE);
+	}
+	
+	/**
+	 * Trace all invocations of the action types
+	 */
+	public static TraceSampler forActionTypes(Class<?>... actionTypes){
+		HashSet<Class<?>> set = new HashSet<Class<?>>();
+		Collections.addAll(set, actionTypes);
+		return new TraceSampler(1, set, 0, TimeUnit.NANOSECONDS, DEFAULT_BUFFER_SIZE);
+	}
+	
+	/**
+	 * Trace all invocations, keep traces not faster than the threshold
+	 */
+	public static TraceSampler slowerThan(long threshold, TimeUnit unit){
+		return new TraceSampler(1, null, threshold, unit, DEFAULT_BUFFER_SIZE);
+	}
+	
+	/**
+	 * @param rate trace 1 of rate invocations
+	 * @param actionTypes types to trace, null or empty for all types
+	 * @param slowerThan min duration of saved traces
+	 * @param bufferSize max count of saved traces
+	 */
+	public TraceSampler(int rate, Set<Class<?>> actionTypes, long slowerThan, TimeUnit unit, int bufferSize) {
+		if(rate < 1){
+			throw new IllegalArgumentException("rate must be positive: "+rate);
+		}
+		this.rate = rate;
+		this.actionTypes = actionTypes == null? Collections.<Class<?>>emptySet() : Collections.unmodifiableSet(new HashSet<Class<?>>(actionTypes));
+		this.slowerThanNanos = unit.toNanos(slowerThan);
+		this.buffer = new TraceBuffer(bufferSize);
+	}
+	
+	/**
+	 * Must the invocation of the action be traced
+	 */
+	public boolean isSampled(Action<?, ?> action){
+		if( ! actionTypes.isEmpty() && ! actionTypes.contains(action.getClass())){
+			return false;
+		}
+		if(rate == 1){
+			return true;
+		}
+		return counter.getAndIncrement() % rate == 0;
+	}
+	
+	@Override
+	public void onTrace(Action<?, ?> action, Trace trace) {
+		if(trace.getDurationNanos() >= slowerThanNanos){
+			buffer.add(trace);
+		}
+		for(TraceListener listener : listeners){
+			try {
+				listener.onTrace(action, trace);
+			}catch (RuntimeException e) {
+				log.error("trace listener failed: "+listener, e);
+			}
+		}
+	}
+	
+	/**
+	 * Add receiver of all sampled traces (not only saved into the buffer)
+	 */
+	public void addListener(TraceListener listener){
+		listeners.add(listener);
+	}
+	
+	public void removeListener(TraceListener listener){
+		listeners.remove(listener);
+	}
+	
+	public TraceBuffer getBuffer() {
+		return buffer;
+	}
+
+	public int getRate() {
+		return rate;
+	}
+
+	public Set<Class<?>> getActionTypes() {
+		return actionTypes;
+	}
+
+	public long getSlowerThanNanos() {
+		return slowerThanNanos;
+	}
+
+}
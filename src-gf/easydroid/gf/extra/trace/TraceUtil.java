@@ -15,9 +15,12 @@
  */
 package easydroid.gf.extra.trace;
 
+import java.io.IOException;
+import java.io.StringWriter;
 import java.util.LinkedList;
 import java.util.List;
 
+import easydroid.gf.extra.util.FormatUtil;
 import easydroid.util.Util;
 
 
@@ -70,11 +73,89 @@ public class TraceUtil {
 	
 	private static void appendElem(StringBuilder sb, TraceElement elem) {
 		sb.append(elem.toStringCurObject());
-		sb.append(" (duration=").append(elem.getDuration()).append("ms");
+		sb.append(" (duration=");
+		FormatUtil.appendMs(sb, elem.getDurationNanos());
 		sb.append(", endStatus=").append(elem.getEndStatus()).append(")");
 	}
-
-
+	
+	/**
+	 * Items of one level are a chain: filters, interceptors and the handler,
+	 * so each item is a child of the previous item which contains it in time.
+	 * @return index of the parent item for each item or -1 for the first items of the chain
+	 */
+	static int[] getChainParents(List<TraceLevelItem> items){
+		
+		int count = items.size();
+		int[] parents = new int[count];
+		int[] open = new int[count];
+		int openSize = 0;
+		for(int i = 0; i < count; i++){
+			long start = items.get(i).getStartNanos();
+			while(openSize > 0 && ! contains(items.get(open[openSize-1]), start)){
+				openSize--;
+			}
+			parents[i] = openSize == 0? -1 : open[openSize-1];
+			open[openSize++] = i;
+		}
+		return parents;
+	}
+	
+	private static boolean contains(TraceElement elem, long nanos){
+		long start = elem.getStartNanos();
+		return nanos >= start && nanos <= start + elem.getDurationNanos();
+	}
+	
+	/**
+	 * Name of item's owner type
+	 */
+	static String getName(TraceLevelItem item){
+		Object owner = item.getOwner();
+		if(owner == null){
+			return "null";
+		}
+		if(owner instanceof Class){
+			return ((Class<?>)owner).getName();
+		}
+		return owner.getClass().getName();
+	}
+	
+	static String getName(Trace trace){
+		Class<?> actionType = trace.getActionType();
+		return actionType == null? "Trace" : actionType.getName();
+	}
+	
+	/**
+	 * Trace as Chrome trace-event JSON
+	 * @see ChromeTraceWriter
+	 */
+	public static String toChromeTraceJson(Trace trace){
+		StringWriter sw = new StringWriter();
+		try {
+			ChromeTraceWriter writer = new ChromeTraceWriter(sw);
+			writer.write(trace);
+			writer.close();
+		}catch (IOException e) {
+			//no IO for StringWriter
+			throw new IllegalStateException(e);
+		}
+		return sw.toString();
+	}
+	
+	/**
+	 * Trace in folded-stack format
+	 * @see FoldedStackWriter
+	 */
+	public static String toFoldedStacks(Trace trace){
+		StringWriter sw = new StringWriter();
+		try {
+			FoldedStackWriter writer = new FoldedStackWriter(sw);
+			writer.write(trace);
+			writer.close();
+		}catch (IOException e) {
+			throw new IllegalStateException(e);
+		}
+		return sw.toString();
+	}
 
 
 	private static class StackItem {
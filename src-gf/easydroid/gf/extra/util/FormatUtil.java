@@ -0,0 +1,95 @@
+/*
+ * Copyright 2012 Evgeny Dolganov (evgenij.dolganov@gmail.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package easydroid.gf.extra.util;
+
+import java.io.IOException;
+
+/**
+ * Formatting of times and JSON strings for text reports and trace writers.
+ * <br>Methods with {@link Appendable} are used for writers, 
+ * methods with {@link StringBuilder} don't throw <tt>IOException</tt>.
+ */
+public class FormatUtil {
+	
+	/**
+	 * Append value in thousandths with three fraction digits: 12345 -&gt; "12.345"
+	 */
+	public static void appendThousandths(Appendable out, long val) throws IOException {
+		if(val < 0){
+			out.append('-');
+			val = -val;
+		}
+		out.append(Long.toString(val / 1000)).append('.');
+		long rest = val % 1000;
+		if(rest < 100) out.append('0');
+		if(rest < 10) out.append('0');
+		out.append(Long.toString(rest));
+	}
+	
+	public static void appendThousandths(StringBuilder sb, long val) {
+		try {
+			appendThousandths((Appendable)sb, val);
+		}catch (IOException e) {
+			//no IO for StringBuilder
+			throw new IllegalStateException(e);
+		}
+	}
+	
+	/**
+	 * Append nanoseconds as milliseconds with three fraction digits: "12.345ms"
+	 */
+	public static void appendMs(StringBuilder sb, long nanos) {
+		appendThousandths(sb, nanos / 1000);
+		sb.append("ms");
+	}
+	
+	/**
+	 * @see #appendMs(StringBuilder, long)
+	 */
+	public static String toMs(long nanos) {
+		StringBuilder sb = new StringBuilder();
+		appendMs(sb, nanos);
+		return sb.toString();
+	}
+	
+	/**
+	 * Append quoted JSON string with escaped quotes, backslashes and control chars
+	 */
+	public static void appendJsonString(Appendable out, String val) throws IOException {
+		out.append('"');
+		for(int i = 0; i < val.length(); i++){
+			char ch = val.charAt(i);
+			if(ch == '"' || ch == '\\'){
+				out.append('\\').append(ch);
+			} else if(ch < 0x20){
+				out.append(String.format("\\u%04x", (int)ch));
+			} else {
+				out.append(ch);
+			}
+		}
+		out.append('"');
+	}
+	
+	public static void appendJsonString(StringBuilder sb, String val) {
+		try {
+			appendJsonString((Appendable)sb, val);
+		}catch (IOException e) {
+			//no IO for StringBuilder
+			throw new IllegalStateException(e);
+		}
+	}
+
+}
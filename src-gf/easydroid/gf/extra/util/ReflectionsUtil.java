@@ -20,11 +20,27 @@ import java.lang.reflect.Field;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
 
 import easydroid.gf.exception.invoke.InjectException;
 import easydroid.gf.exception.invoke.ObjectToInjectNotFoundException;
 
 public class ReflectionsUtil {
+	
+	/**
+	 * Lookup of object by assignable type
+	 */
+	public static interface ObjectFinder {
+		
+		Object find(Class<?> type);
+		
+	}
+	
+	private static final Field[] EMPTY_FIELDS = new Field[0];
+	
+	//[annotation - [type - accessible fields]]
+	private static final ConcurrentHashMap<Class<?>, ConcurrentHashMap<Class<?>, Field[]>> injectPlans 
+		= new ConcurrentHashMap<Class<?>, ConcurrentHashMap<Class<?>, Field[]>>();
 
 
 	public static void injectDataFromContext(Object ob, Collection<Object> collection, 
@@ -33,22 +49,40 @@ public class ReflectionsUtil {
 		injectDataFromContext(ob, collection, annotationClass, true);
 	}
 	
-	public static void injectDataFromContext(Object ob, Collection<Object> collection, 
+	public static void injectDataFromContext(final Object ob, final Collection<Object> collection, 
+			Class<? extends Annotation> annotationClass, boolean exceptionIfNotFound) throws InjectException {
+		
+		ObjectFinder finder = new ObjectFinder() {
+			
+			@Override
+			public Object find(Class<?> type) {
+				return findObjectToInject(type, collection);
+			}
+		};
+		injectDataFromContext(ob, finder, annotationClass, exceptionIfNotFound);
+	}
+	
+	public static void injectDataFromContext(Object ob, ObjectFinder finder, 
+			Class<? extends Annotation> annotationClass) throws InjectException {
+		
+		injectDataFromContext(ob, finder, annotationClass, true);
+	}
+	
+	public static void injectDataFromContext(Object ob, ObjectFinder finder, 
 			Class<? extends Annotation> annotationClass, boolean exceptionIfNotFound) throws InjectException {
 		
-		List<Field> requiredField = getRequiredFields(ob, annotationClass);
-		for (Field field : requiredField) {
+		Field[] requiredFields = getInjectFields(ob.getClass(), annotationClass);
+		for (int i = 0; i < requiredFields.length; i++) {
+			Field field = requiredFields[i];
 			
 			try {
 				
-				field.setAccessible(true);
-				
 				Object oldValue = field.get(ob);
 				if(oldValue != null){
 					continue;
 				}
 				
-				Object objectToInject = findObjectToInject(field, collection);
+				Object objectToInject = finder.find(field.getType());
 				if(objectToInject == null){
 					if(exceptionIfNotFound){
 						throw new ObjectToInjectNotFoundException(ob, field);
@@ -68,9 +102,50 @@ public class ReflectionsUtil {
 	}
 	
 
+	/**
+	 * Cached analog of {@link #getRequiredFields(Object, Class)}.
+	 * Fields are resolved once for the type and are already accessible.
+	 */
+	public static Field[] getInjectFields(Class<?> type, Class<? extends Annotation> annotationClass) {
+		
+		ConcurrentHashMap<Class<?>, Field[]> plans = injectPlans.get(annotationClass);
+		if(plans == null){
+			plans = new ConcurrentHashMap<Class<?>, Field[]>();
+			ConcurrentHashMap<Class<?>, Field[]> prev = injectPlans.putIfAbsent(annotationClass, plans);
+			if(prev != null){
+				plans = prev;
+			}
+		}
+		
+		Field[] fields = plans.get(type);
+		if(fields == null){
+			fields = createInjectFields(type, annotationClass);
+			plans.put(type, fields);
+		}
+		return fields;
+	}
+	
+	private static Field[] createInjectFields(Class<?> type, Class<? extends Annotation> annotationClass) {
+		
+		List<Field> list = getRequiredFields(type, annotationClass);
+		if(list.isEmpty()){
+			return EMPTY_FIELDS;
+		}
+		
+		Field[] out = list.toArray(new Field[list.size()]);
+		for (Field field : out) {
+			field.setAccessible(true);
+		}
+		return out;
+	}
+
 	public static List<Field> getRequiredFields(Object ob, Class<? extends Annotation> annotationClass) {
+		return getRequiredFields(ob.getClass(), annotationClass);
+	}
+	
+	public static List<Field> getRequiredFields(Class<?> type, Class<? extends Annotation> annotationClass) {
 		ArrayList<Field> out = new ArrayList<Field>();
-		Class<?> curClass = ob.getClass();
+		Class<?> curClass = type;
 		while(!curClass.equals(Object.class)){
 			Field[] fields = curClass.getDeclaredFields();
 			for(Field candidat : fields){
@@ -85,7 +160,10 @@ public class ReflectionsUtil {
 	}
 	
 	public static Object findObjectToInject(Field field, Collection<Object> collection) {
-		Class<?> declaringType = field.getType();
+		return findObjectToInject(field.getType(), collection);
+	}
+	
+	public static Object findObjectToInject(Class<?> declaringType, Collection<Object> collection) {
 		for (Object candidat : collection) {
 			if(declaringType.isAssignableFrom(candidat.getClass())){
 				return candidat;
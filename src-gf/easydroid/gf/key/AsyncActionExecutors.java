@@ -0,0 +1,43 @@
+/*
+ * Copyright 2012 Evgeny Dolganov (evgenij.dolganov@gmail.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package easydroid.gf.key;
+
+import java.util.Map;
+import java.util.concurrent.Executor;
+
+import easydroid.gf.config.ConfigKey;
+
+/**
+ * Executors for async invocations of concrete action types.
+ * <br>If there is no executor for the action's type {@link AsyncExecutor} is used.
+ * <br>Example of usage:
+ * <pre>
+ * Map&lt;Class&lt;?&gt;, Executor&gt; map = new HashMap&lt;Class&lt;?&gt;, Executor&gt;();
+ * map.put(SyncAction.class, syncExecutor);
+ * 
+ * Engine engine = new Engine();
+ * engine.setConfig(AsyncActionExecutors.class, map);</pre>
+ *
+ * @see AsyncExecutor
+ */
+public class AsyncActionExecutors extends ConfigKey<Map<Class<?>, Executor>> {
+
+	@Override
+	public boolean hasDefaultValue() {
+		return true;
+	}
+
+}
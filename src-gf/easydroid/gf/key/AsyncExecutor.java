@@ -0,0 +1,41 @@
+/*
+ * Copyright 2012 Evgeny Dolganov (evgenij.dolganov@gmail.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package easydroid.gf.key;
+
+import java.util.concurrent.Executor;
+
+import easydroid.gf.config.ConfigKey;
+
+/**
+ * Executor for {@link easydroid.gf.service.ActionService#invokeAsync(easydroid.gf.Action)}.
+ * <br>By default (<tt>null</tt> value) the engine's shared pool is used, its size is {@link AsyncPoolSize}.
+ * <br>Example of usage:
+ * <pre>
+ * Engine engine = new Engine();
+ * engine.setConfig(AsyncExecutor.class, Executors.newSingleThreadExecutor());
+ * ...
+ * engine.invokeAsync(new SomeAction());</pre>
+ *
+ * @see AsyncActionExecutors
+ */
+public class AsyncExecutor extends ConfigKey<Executor> {
+
+	@Override
+	public boolean hasDefaultValue() {
+		return true;
+	}
+
+}
@@ -0,0 +1,45 @@
+/*
+ * Copyright 2012 Evgeny Dolganov (evgenij.dolganov@gmail.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package easydroid.gf.key;
+
+import easydroid.gf.config.ConfigKey;
+import easydroid.gf.extra.metrics.MetricsRegistry;
+
+/**
+ * Collect counters and latency histograms of invocations.
+ * <br>Example of usage:
+ * <pre>
+ * Engine engine = new Engine();
+ * engine.setConfig(CollectMetrics.class, true);
+ * ...
+ * System.out.println(engine.getMetrics().toText());</pre>
+ *
+ * @see MetricsRegistry
+ *
+ */
+public class CollectMetrics extends ConfigKey<Boolean> {
+
+	@Override
+	public boolean hasDefaultValue() {
+		return true;
+	}
+	
+	@Override
+	public Boolean getDefaultValue() throws Exception {
+		return Boolean.FALSE;
+	}
+
+}
@@ -0,0 +1,37 @@
+/*
+ * Copyright 2012 Evgeny Dolganov (evgenij.dolganov@gmail.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package easydroid.gf.key;
+
+import easydroid.gf.config.ConfigKey;
+
+/**
+ * Max count of threads for one <tt>Engine.invokeAll</tt> call (including the caller's thread).
+ * <br>Default value is count of available processors.
+ * <br>Threads are taken from the engine's shared pool, see {@link AsyncPoolSize}.
+ */
+public class InvokeAllParallelism extends ConfigKey<Integer> {
+
+	@Override
+	public boolean hasDefaultValue() {
+		return true;
+	}
+	
+	@Override
+	public Integer getDefaultValue() throws Exception {
+		return Runtime.getRuntime().availableProcessors();
+	}
+
+}
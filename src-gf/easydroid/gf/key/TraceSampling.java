@@ -0,0 +1,41 @@
+/*
+ * Copyright 2012 Evgeny Dolganov (evgenij.dolganov@gmail.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package easydroid.gf.key;
+
+import easydroid.gf.config.ConfigKey;
+import easydroid.gf.extra.trace.TraceSampler;
+
+/**
+ * Sampled tracing config.
+ * <br>Unlike {@link TraceHandlers} only some invocations are traced 
+ * and traces are saved in the sampler's buffer, not in actions.
+ * <br>Example of usage:
+ * <pre>
+ * Engine engine = new Engine();
+ * engine.setConfig(TraceSampling.class, TraceSampler.everyNth(100));
+ * ...
+ * List&lt;Trace&gt; traces = engine.getSampledTraces();</pre>
+ * 
+ * @see TraceSampler
+ */
+public class TraceSampling extends ConfigKey<TraceSampler> {
+
+	@Override
+	public boolean hasDefaultValue() {
+		return true;
+	}
+
+}
@@ -0,0 +1,42 @@
+/*
+ * Copyright 2012 Evgeny Dolganov (evgenij.dolganov@gmail.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package easydroid.gf.key.scan;
+
+import easydroid.gf.config.ConfigKey;
+import easydroid.gf.extra.scan.ScanCache;
+
+/**
+ * Directory of {@link ScanCache} files.
+ * <br>Default value is <tt>null</tt>: directory of the scanner
+ * ("gf-scan" dir in cache dir of android application for <tt>AndroidClassScanner</tt>).
+ * Use {@link ScanCacheEnabled} for scanning on every <tt>scanAndPut</tt>.
+ *
+ * @see ScanCache
+ * @see easydroid.gf.extra.scan.CacheableClassScanner#getCacheDir()
+ */
+public class ScanCacheDir extends ConfigKey<String>{
+
+	@Override
+	public boolean hasDefaultValue() {
+		return true;
+	}
+	
+	@Override
+	public String getDefaultValue() throws Exception {
+		return null;
+	}
+
+}
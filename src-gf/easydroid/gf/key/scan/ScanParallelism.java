@@ -0,0 +1,46 @@
+/*
+ * Copyright 2012 Evgeny Dolganov (evgenij.dolganov@gmail.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package easydroid.gf.key.scan;
+
+import easydroid.gf.config.ConfigKey;
+import easydroid.gf.core.scan.DefaultClassScanner;
+
+/**
+ * Max count of threads for package scanning by {@link DefaultClassScanner}.
+ * <br>Default value is 1: scanning in the calling thread. 
+ * Use 0 for count of available processors.
+ * <br>Example of usage:
+ * <pre>
+ * Engine engine = new Engine();
+ * engine.setConfig(ClassScannerKey.class, DefaultClassScanner.class);
+ * engine.setConfig(ScanParallelism.class, 4);
+ * engine.scanAndPut("some.package");</pre>
+ *
+ * @see easydroid.gf.core.util.ScanUtil#setParallelism(int)
+ */
+public class ScanParallelism extends ConfigKey<Integer>{
+
+	@Override
+	public boolean hasDefaultValue() {
+		return true;
+	}
+	
+	@Override
+	public Integer getDefaultValue() throws Exception {
+		return 1;
+	}
+
+}
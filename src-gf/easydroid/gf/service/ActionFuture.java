@@ -0,0 +1,61 @@
+/*
+ * Copyright 2012 Evgeny Dolganov (evgenij.dolganov@gmail.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package easydroid.gf.service;
+
+import java.util.concurrent.Future;
+
+import easydroid.core.exception.ExceptionWrapper;
+import easydroid.gf.Action;
+import easydroid.gf.exception.invoke.InvocationException;
+
+/**
+ * Result of {@link ActionService#invokeAsync(Action)}.
+ * <br>Besides the {@link Future} methods it gives the output with
+ * the same exceptions as the blocking invoke:
+ * <pre>
+ * ActionFuture&lt;String&gt; future = engine.invokeAsync(new SomeAction("some data"));
+ * ...
+ * String result = future.getOutput(); //same as engine.invoke(action)
+ * </pre>
+ *
+ * @see ActionService#invokeAsync(Action)
+ */
+public interface ActionFuture<O> extends Future<O> {
+	
+	/**
+	 * Wait for the end of invocation and return <tt>Action</tt> output.
+	 * @throws InvocationException <tt>Engine</tt>'s processing exception
+	 * @throws ExceptionWrapper wrapper of non-runtime <tt>Exception</tt> from handler's body
+	 * or of <tt>InterruptedException</tt> of the waiting thread
+	 * @throws RuntimeException runtime <tt>Exception</tt> from handler's body
+	 * @see ActionService#invoke(Action)
+	 */
+	O getOutput() throws InvocationException, ExceptionWrapper, RuntimeException;
+	
+	/**
+	 * This method is {@link #getOutput()} analog with unwrap non-runtime exceptions.
+	 * @see ActionService#invokeUnwrap(Action)
+	 */
+	O getOutputUnwrap() throws InvocationException, Exception;
+	
+	/**
+	 * Add listener for the end of invocation (with any result).
+	 * <br>Listener is called in the invocation's thread or 
+	 * in the current thread if invocation is already done.
+	 */
+	void addListener(Runnable listener);
+
+}
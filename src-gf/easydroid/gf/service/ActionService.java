@@ -15,6 +15,8 @@
  */
 package easydroid.gf.service;
 
+import java.util.concurrent.Executor;
+
 import easydroid.core.exception.ExceptionWrapper;
 import easydroid.gf.Action;
 import easydroid.gf.Filter;
@@ -106,5 +108,26 @@ public interface ActionService {
 	 * @see #invoke(Action)
 	 */
 	<I, O> O invokeUnwrap(Action<I,O> action) throws InvocationException, Exception;
+	
+	
+	/**
+	 * Handle the {@link Action} object in other thread.
+	 * <br>Executor is chosen by config: {@link easydroid.gf.key.AsyncActionExecutors},
+	 * {@link easydroid.gf.key.AsyncExecutor} or the engine's shared pool.
+	 * <p>Example:
+	 * <pre>
+	 * ActionFuture&lt;String&gt; future = service.invokeAsync(new SomeAction("some data"));
+	 * ...
+	 * String result = future.getOutput();
+	 * </pre>
+	 * @return handle of invocation with the same exceptions as {@link #invoke(Action)}
+	 * @see ActionFuture
+	 */
+	<I, O> ActionFuture<O> invokeAsync(Action<I,O> action) throws InvocationException;
+	
+	/**
+	 * This method is {@link #invokeAsync(Action)} analog with the caller's executor.
+	 */
+	<I, O> ActionFuture<O> invokeAsync(Action<I,O> action, Executor executor) throws InvocationException;
 
 }
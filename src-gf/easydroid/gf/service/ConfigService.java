@@ -17,6 +17,7 @@ package easydroid.gf.service;
 
 import java.util.Properties;
 
+import easydroid.gf.config.ConfigHandle;
 import easydroid.gf.config.ConfigKey;
 import easydroid.gf.exception.config.EmptyClassException;
 import easydroid.gf.exception.config.GetConfigValueException;
@@ -67,5 +68,12 @@ public interface ConfigService {
 	 * Anolog of {@link #getConfig(ConfigKey)}: <tt>Boolean.TRUE.equals(getConfig(key))</tt>
 	 */
 	boolean isTrueConfig(ConfigKey<Boolean> key) throws GetConfigValueException;
+	
+	/**
+	 * Get accessor of the key for frequent reads without locks and allocations.
+	 * @throws EmptyClassException if <tt>keyType</tt> is null
+	 * @see ConfigHandle
+	 */
+	<T> ConfigHandle<T> handle(Class<? extends ConfigKey<T>> keyType) throws EmptyClassException;
 
 }
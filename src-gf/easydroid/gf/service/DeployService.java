@@ -23,6 +23,7 @@ import easydroid.gf.Interceptor;
 import easydroid.gf.exception.deploy.NoMappingAnnotationException;
 import easydroid.gf.exception.deploy.NotOneHandlerException;
 import easydroid.gf.extra.invocation.InvocationObjectInitializer;
+import easydroid.gf.extra.registry.HandlerRegistry;
 
 /**
  * Interface for adding handlers, interceptors and filters.
@@ -73,6 +74,12 @@ public interface DeployService {
 	void scanAndPut(Class<?> clazz)
 			throws NoMappingAnnotationException, NotOneHandlerException;
 	
+	/**
+	 * Put all handlers, interceptors, filters of compile-time registry.
+	 */
+	void putRegistry(HandlerRegistry registry)
+			throws NoMappingAnnotationException, NotOneHandlerException;
+	
 	/**
 	 * Analog of multi call of {@link #putHandler(Class)}.
 	 * For example for JavaBean logic.
@@ -15,6 +15,8 @@
  */
 package easydroid.gf.service;
 
+import java.util.List;
+
 import easydroid.gf.Action;
 import easydroid.gf.Handler;
 import easydroid.gf.Interceptor;
@@ -50,5 +52,14 @@ public interface InvocationService {
 	 * </ul>
 	 */
 	<I,O> O subInvoke(Action<I, O> action) throws Exception;
+	
+	/**
+	 * Sub invoke independent actions in parallel.
+	 * <br>Each action is processed as in {@link #subInvoke(Action)} 
+	 * with shared invocation context, outputs are in the actions.
+	 * <br>Executors for actions are chosen as in {@link ActionService#invokeAsync(Action)}.
+	 * @throws Exception first exception in order of actions, it is thrown after the end of all actions
+	 */
+	void subInvokeAll(List<? extends Action<?,?>> actions) throws Exception;
 
 }